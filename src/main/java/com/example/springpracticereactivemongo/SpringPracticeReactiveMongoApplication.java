@@ -2,12 +2,35 @@ package com.example.springpracticereactivemongo;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class SpringPracticeReactiveMongoApplication {
 	
+	/**
+	 * The maximum number of startup steps recorded, enough for every bean of the context.
+	 */
+	static final int STARTUP_STEPS_CAPACITY = 8192;
+	
 	public static void main(String[] args) {
-		SpringApplication.run(SpringPracticeReactiveMongoApplication.class, args);
+		application().run(args);
+	}
+	
+	/**
+	 * Creates the application with a buffering `ApplicationStartup`.
+	 * <p>
+	 * Every startup step, such as the instantiation of a bean, the creation of a repository or the
+	 * refresh of the context, is recorded with its duration and exposed by the `startup` actuator
+	 * endpoint, so the steps dominating cold starts can be found. The endpoint requires authentication.
+	 * Reading it with `POST` instead of `GET` drains the buffer, which releases the recorded steps once
+	 * they have been collected.
+	 *
+	 * @return the application to run
+	 */
+	static SpringApplication application() {
+		SpringApplication application = new SpringApplication(SpringPracticeReactiveMongoApplication.class);
+		application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS_CAPACITY));
+		return application;
 	}
 	
 }
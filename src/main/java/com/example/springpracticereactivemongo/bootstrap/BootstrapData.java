@@ -4,6 +4,8 @@ import com.example.springpracticereactivemongo.domain.Beer;
 import com.example.springpracticereactivemongo.domain.Customer;
 import com.example.springpracticereactivemongo.repositories.BeerRepository;
 import com.example.springpracticereactivemongo.repositories.CustomerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
@@ -18,6 +20,8 @@ import java.util.List;
 @Component
 public class BootstrapData implements CommandLineRunner {
 
+    private static final Logger log = LoggerFactory.getLogger(BootstrapData.class);
+
     private final BeerRepository beerRepository;
     private final CustomerRepository customerRepository;
 
@@ -62,7 +66,7 @@ public class BootstrapData implements CommandLineRunner {
                         new Customer("Jane Doe"),
                         new Customer("Jack Doe")
                 )).subscribe();
-                System.out.println("Loading customer data...");
+                log.info("Loading customer data...");
             }
         });
     }
@@ -81,7 +85,7 @@ public class BootstrapData implements CommandLineRunner {
                                 new Beer("Sunshine City", "IPA", "94546", 10, BigDecimal.TEN)
                         )
                 ).subscribe();
-                System.out.println("Loading beer data...");
+                log.info("Loading beer data...");
             }
         });
     }
@@ -0,0 +1,76 @@
+package com.example.springpracticereactivemongo.config;
+
+import com.example.springpracticereactivemongo.security.CachingReactiveJwtDecoder;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configuration class for the verification of the JWT bearer tokens of the resource server.
+ * Replaces the decoder Spring Boot would otherwise create from the issuer URI.
+ */
+@Configuration
+public class JwtDecoderConfig {
+
+    /**
+     * Creates the decoder verifying bearer tokens, caching the tokens it has already verified.
+     * <p>
+     * If a local JWK set file is configured, tokens are verified with its keys and the issuer is never
+     * contacted, so nodes start and authenticate while it is unreachable; its URI is then only compared
+     * to the `iss` claim. Otherwise, the keys are discovered from the issuer on the first request.
+     *
+     * @param issuerUri     the issuer of the tokens
+     * @param jwkSetFile    the local JWK set file, or `null` to discover the keys from the issuer
+     * @param jwsAlgorithms the signature algorithms accepted with the keys of the local JWK set
+     * @param cacheSize     the maximum number of cached verified tokens
+     * @param cacheTtl      the maximum time a verified token stays cached
+     * @param meterRegistry the registry the cache and verification metrics are published to
+     * @return a ReactiveJwtDecoder instance
+     * @throws IOException    if the JWK set file cannot be read
+     * @throws ParseException if the JWK set file is not a JWK set
+     */
+    @Bean
+    public ReactiveJwtDecoder jwtDecoder(
+            @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}") String issuerUri,
+            @Value("${app.security.jwt.jwk-set-file:#{null}}") Resource jwkSetFile,
+            @Value("${app.security.jwt.jws-algorithms:RS256}") List<String> jwsAlgorithms,
+            @Value("${app.security.jwt.cache.maximum-size:10000}") long cacheSize,
+            @Value("${app.security.jwt.cache.time-to-live:5m}") Duration cacheTtl,
+            MeterRegistry meterRegistry
+    ) throws IOException, ParseException {
+        NimbusReactiveJwtDecoder decoder;
+        if (jwkSetFile != null) {
+            JWKSet jwkSet;
+            try (InputStream in = jwkSetFile.getInputStream()) {
+                jwkSet = JWKSet.load(in);
+            }
+            NimbusReactiveJwtDecoder.JwkSourceReactiveJwtDecoderBuilder builder = NimbusReactiveJwtDecoder.withJwkSource(
+                    jwt -> Flux.fromIterable(new JWKSelector(JWKMatcher.forJWSHeader(jwt.getHeader())).select(jwkSet))
+            );
+            jwsAlgorithms.forEach(algorithm -> builder.jwsAlgorithm(SignatureAlgorithm.from(algorithm)));
+            decoder = builder.build();
+        } else {
+            decoder = NimbusReactiveJwtDecoder.withIssuerLocation(issuerUri).build();
+        }
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuerUri));
+
+        return new CachingReactiveJwtDecoder(decoder, cacheSize, cacheTtl, Clock.systemUTC(), meterRegistry);
+    }
+}
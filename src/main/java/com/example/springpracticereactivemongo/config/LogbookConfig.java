@@ -1,27 +1,49 @@
 package com.example.springpracticereactivemongo.config;
 
+import com.example.springpracticereactivemongo.logging.DeferredLogstashSink;
+import com.example.springpracticereactivemongo.logging.RequestSampling;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.zalando.logbook.HttpLogFormatter;
+import org.zalando.logbook.HttpRequest;
 import org.zalando.logbook.Sink;
 import org.zalando.logbook.json.JsonHttpLogFormatter;
-import org.zalando.logbook.logstash.LogstashLogbackSink;
+
+import java.util.function.Predicate;
 
 /**
  * Configuration class for Logbook integration.
  * Provides beans for logging HTTP requests and responses using Logstash and JSON formatting.
+ * <p>
+ * Only a sample of the requests of every route is logged. Excluded routes and the maximum logged body
+ * size are set with the `logbook.predicate.exclude` and `logbook.write.max-body-size` properties.
  */
 @Configuration
+@EnableConfigurationProperties(LogbookSamplingProperties.class)
 public class LogbookConfig {
 
     /**
      * Creates a Logbook Sink bean configured with a JSON HTTP log formatter and Logstash integration.
+     * Exchanges are logged at TRACE through SLF4J and only formatted when the asynchronous JSON console
+     * appender writes them, off the request thread; they are the first to be discarded when its ring
+     * buffer fills up.
      *
      * @return a Sink instance for logging HTTP traffic
      */
     @Bean
     public Sink logbookLogStash() {
-        HttpLogFormatter formatter = new JsonHttpLogFormatter();
-        return new LogstashLogbackSink(formatter);
+        return new DeferredLogstashSink(new JsonHttpLogFormatter());
+    }
+
+    /**
+     * Creates the condition deciding which requests are logged, from the per-route sampling rates.
+     * Logbook combines it with the excluded routes.
+     *
+     * @param sampling the sampling rates
+     * @return a predicate accepting the sampled requests
+     */
+    @Bean
+    public Predicate<HttpRequest> requestCondition(LogbookSamplingProperties sampling) {
+        return new RequestSampling(sampling.rate(), sampling.routes());
     }
-}
\ No newline at end of file
+}
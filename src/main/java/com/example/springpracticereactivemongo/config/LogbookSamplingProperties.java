@@ -0,0 +1,23 @@
+package com.example.springpracticereactivemongo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Sampling rates of the HTTP exchange log, bound from `app.logbook.sampling`.
+ *
+ * @param rate   the share of requests logged on routes without a rate of their own, between 0 and 1
+ * @param routes the shares of requests logged by route pattern, e.g. `/api/v3/beer/**`, in matching order
+ */
+@ConfigurationProperties("app.logbook.sampling")
+public record LogbookSamplingProperties(
+        @DefaultValue("1.0") double rate,
+        Map<String, Double> routes
+) {
+    public LogbookSamplingProperties {
+        routes = routes != null ? new LinkedHashMap<>(routes) : Map.of();
+    }
+}
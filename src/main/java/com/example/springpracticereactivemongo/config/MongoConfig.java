@@ -0,0 +1,63 @@
+package com.example.springpracticereactivemongo.config;
+
+import com.example.springpracticereactivemongo.monitoring.PoolCheckoutListener;
+import com.example.springpracticereactivemongo.monitoring.SlowQueryListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions.BigDecimalRepresentation;
+
+import java.time.Duration;
+
+/**
+ * Configuration class for the MongoDB object mapping and client monitoring.
+ * Replaces the custom conversions Spring Boot would otherwise register by default.
+ */
+@Configuration
+public class MongoConfig {
+
+    /**
+     * Creates the custom conversions used to map documents.
+     * `BigDecimal` values, such as beer prices, are written as Decimal128 instead of strings,
+     * so they compare and sort numerically and range queries and sorts on them can use an index.
+     * Prices still stored as strings keep being read until they are migrated.
+     *
+     * @return a MongoCustomConversions instance storing BigDecimal as Decimal128
+     */
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return MongoCustomConversions.create(
+                adapter -> adapter.bigDecimal(BigDecimalRepresentation.DECIMAL128)
+        );
+    }
+
+    /**
+     * Registers the slow query log and the pool checkout timer with the MongoDB client.
+     * Command latencies per command and collection are recorded by the `mongodb.driver.commands`
+     * timer Spring Boot registers, with histograms enabled in the application properties.
+     *
+     * @param mongoTemplate   the template used to explain slow commands, resolved once the client exists
+     * @param meterRegistry   the registry the pool checkout timer is published to
+     * @param threshold       the latency from which a command is logged as slow
+     * @param explainInterval the minimum time between two explains of the same query shape
+     * @return a customizer adding the listeners to the client settings
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoMonitoringCustomizer(
+            ObjectProvider<ReactiveMongoTemplate> mongoTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.mongo.slow-query.threshold:100ms}") Duration threshold,
+            @Value("${app.mongo.slow-query.explain-interval:10m}") Duration explainInterval
+    ) {
+        SlowQueryListener slowQueryListener = new SlowQueryListener(mongoTemplate, threshold, explainInterval);
+        PoolCheckoutListener poolCheckoutListener = new PoolCheckoutListener(meterRegistry);
+        return settings -> settings
+                .addCommandListener(slowQueryListener)
+                .applyToConnectionPoolSettings(pool -> pool.addConnectionPoolListener(poolCheckoutListener));
+    }
+}
@@ -2,6 +2,7 @@ package com.example.springpracticereactivemongo.config;
 
 
 import org.springframework.boot.actuate.autoconfigure.security.reactive.EndpointRequest;
+import org.springframework.boot.actuate.startup.StartupEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
@@ -18,11 +19,13 @@ public class SecurityConfig {
 	 * Configures a `SecurityWebFilterChain` bean specifically for securing actuator endpoints.
 	 * <p>
 	 * This filter chain is applied with the highest priority (`@Order(1)`) and allows unrestricted
-	 * access to all actuator endpoints. It uses the `EndpointRequest.toAnyEndpoint()` matcher
-	 * to target all actuator endpoints.
+	 * access to all actuator endpoints except `startup`. It uses the `EndpointRequest.toAnyEndpoint()`
+	 * matcher to target all actuator endpoints. The `startup` endpoint exposes every bean and
+	 * configuration class of the application, so it is left to the application filter chain, which
+	 * requires authentication.
 	 *
 	 * @param http the `ServerHttpSecurity` object used to configure the security filter chain
-	 * @return a `SecurityWebFilterChain` that permits all access to actuator endpoints
+	 * @return a `SecurityWebFilterChain` that permits all access to actuator endpoints but `startup`
 	 * @throws Exception if an error occurs during the configuration
 	 */
 	@Bean
@@ -30,7 +33,7 @@ public class SecurityConfig {
 	public SecurityWebFilterChain actuatorSecurityFilterChain(ServerHttpSecurity http) throws Exception {
 		return http
 				.securityMatcher(
-						EndpointRequest.toAnyEndpoint() // Matches all actuator endpoints
+						EndpointRequest.toAnyEndpoint().excluding(StartupEndpoint.class) // Matches all actuator endpoints but startup
 				)
 				.authorizeExchange(
 						auth -> auth.anyExchange().permitAll() // Permits all access to these endpoints
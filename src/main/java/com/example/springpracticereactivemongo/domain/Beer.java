@@ -1,6 +1,9 @@
 package com.example.springpracticereactivemongo.domain;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
@@ -9,8 +12,17 @@ import java.time.LocalDateTime;
 /**
  * Represents a Beer entity stored in a MongoDB collection.
  * This class is implemented as a Java record, providing a compact syntax for immutable data objects.
+ * <p>
+ * The declared indexes back every query the application runs: lookups by name and UPC,
+ * queries by style, which are ordered and paged by identifier, and the list filters. Name
+ * prefixes, price ranges and stock ranges each have an index of their own, and price and
+ * stock ranges within styles have compound indexes. They are created at startup by the
+ * index reconciler.
  */
 @Document
+@CompoundIndex(name = "beerStyle_id", def = "{'beerStyle': 1, '_id': 1}")
+@CompoundIndex(name = "beerStyle_price", def = "{'beerStyle': 1, 'price': 1}")
+@CompoundIndex(name = "beerStyle_quantityOnHand", def = "{'beerStyle': 1, 'quantityOnHand': 1}")
 public record Beer(
 
         /**
@@ -22,6 +34,7 @@ public record Beer(
         /**
          * The name of the beer.
          */
+        @Indexed(name = "beerName")
         String beerName,
 
         /**
@@ -32,16 +45,19 @@ public record Beer(
         /**
          * The Universal Product Code (UPC) for the beer.
          */
+        @Indexed(name = "upc")
         String upc,
 
         /**
          * The quantity of beer available on hand.
          */
+        @Indexed(name = "quantityOnHand")
         Integer quantityOnHand,
 
         /**
-         * The price of the beer.
+         * The price of the beer, stored as Decimal128 so it compares and sorts numerically.
          */
+        @Indexed(name = "price")
         BigDecimal price,
 
         /**
@@ -52,10 +68,17 @@ public record Beer(
         /**
          * The date and time when the beer entity was last modified.
          */
-        LocalDateTime lastModifiedDate
+        LocalDateTime lastModifiedDate,
+
+        /**
+         * The version of the beer entity, incremented on every write.
+         * Used for optimistic concurrency control.
+         */
+        @Version
+        Long version
 ) {
     /**
-     * Constructs a Beer instance with the specified attributes, excluding the ID, createdDate, and lastModifiedDate.
+     * Constructs a Beer instance with the specified attributes, excluding the ID, createdDate, lastModifiedDate and version.
      * These fields are set to null by default.
      *
      * @param beerName       the name of the beer
@@ -71,6 +94,6 @@ public record Beer(
             Integer quantityOnHand,
             BigDecimal price
     ) {
-        this(null, beerName, beerStyle, upc, quantityOnHand, price, null, null);
+        this(null, beerName, beerStyle, upc, quantityOnHand, price, null, null, null);
     }
 }
\ No newline at end of file
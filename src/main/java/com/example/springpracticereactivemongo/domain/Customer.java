@@ -1,6 +1,7 @@
 package com.example.springpracticereactivemongo.domain;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -31,15 +32,22 @@ public record Customer(
         /**
          * The date and time when the customer entity was last modified.
          */
-        LocalDateTime lastModifiedDate
+        LocalDateTime lastModifiedDate,
+
+        /**
+         * The version of the customer entity, incremented on every write.
+         * Used for optimistic concurrency control.
+         */
+        @Version
+        Long version
 ) {
     /**
      * Constructs a Customer instance with the specified name.
-     * The ID, createdDate, and lastModifiedDate fields are set to null by default.
+     * The ID, createdDate, lastModifiedDate and version fields are set to null by default.
      *
      * @param customerName the name of the customer
      */
     public Customer(String customerName) {
-        this(null, customerName, null, null);
+        this(null, customerName, null, null, null);
     }
 }
\ No newline at end of file
@@ -0,0 +1,264 @@
+package com.example.springpracticereactivemongo.indexes;
+
+import com.example.springpracticereactivemongo.domain.Beer;
+import com.example.springpracticereactivemongo.domain.Customer;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reconciles the indexes declared on the documents with the indexes present in MongoDB.
+ * <p>
+ * Once the application has started, the declared indexes (`@Indexed`, `@CompoundIndex`) of every
+ * document type are resolved and compared with the indexes of its collection. Missing indexes are
+ * created in the background, without delaying startup, and the collection is checked again afterwards.
+ * Indexes are compared by their keys, with their directions or types, and by the options that change
+ * their behavior: unique, sparse and TTL. Indexes that are missing, present without being declared
+ * or present with a different definition are reported as drift. Until every
+ * declared index exists, {@link MongoIndexesHealthIndicator} keeps the node out of the readiness group,
+ * so it never serves a route backed by a collection scan.
+ */
+@Component
+public class MongoIndexReconciler {
+
+	private static final Logger log = LoggerFactory.getLogger(MongoIndexReconciler.class);
+
+	/**
+	 * Document types whose collections are reconciled.
+	 */
+	static final List<Class<?>> DOCUMENT_TYPES = List.of(Beer.class, Customer.class);
+
+	private static final int RETRY_ATTEMPTS = 10;
+	
+	/**
+	 * The options that change how an index behaves, compared in addition to its keys.
+	 */
+	private static final List<String> COMPARED_OPTIONS = List.of("unique", "sparse", "expireAfterSeconds");
+
+	/**
+	 * The state of the indexes of one collection after the last reconciliation.
+	 *
+	 * @param missing the key specs of the declared indexes that do not exist
+	 * @param extra   the names of the existing indexes that are not declared
+	 */
+	public record CollectionIndexes(List<String> missing, List<String> extra) {
+
+		/**
+		 * Checks whether every declared index exists.
+		 *
+		 * @return `true` if no declared index is missing
+		 */
+		public boolean isComplete() {
+			return missing.isEmpty();
+		}
+	}
+
+	private final ReactiveMongoTemplate mongoTemplate;
+	private final IndexResolver indexResolver;
+	private final Map<String, CollectionIndexes> collections = new ConcurrentHashMap<>();
+	private volatile boolean reconciled;
+
+	/**
+	 * Constructor for MongoIndexReconciler.
+	 *
+	 * @param mongoTemplate the template used to inspect and create indexes
+	 */
+	public MongoIndexReconciler(ReactiveMongoTemplate mongoTemplate) {
+		this.mongoTemplate = mongoTemplate;
+		this.indexResolver = IndexResolver.create(mongoTemplate.getConverter().getMappingContext());
+	}
+
+	/**
+	 * Starts the reconciliation in the background once the application is ready.
+	 * Failures to reach the database are retried with backoff; the node stays out of the
+	 * readiness group until a reconciliation succeeds.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		reconcile()
+			.retryWhen(Retry.backoff(RETRY_ATTEMPTS, Duration.ofSeconds(1)))
+			.subscribe(
+				null,
+				e -> log.error("Index reconciliation failed", e)
+			);
+	}
+
+	/**
+	 * Creates the missing indexes of all collections and records the resulting state.
+	 *
+	 * @return a `Mono` completing once every collection has been reconciled
+	 */
+	public Mono<Void> reconcile() {
+		return Flux.fromIterable(DOCUMENT_TYPES)
+			       .concatMap(this::reconcile)
+			       .then(Mono.fromRunnable(() -> reconciled = true));
+	}
+
+	/**
+	 * Checks whether every collection was reconciled at least once.
+	 *
+	 * @return `true` once the first reconciliation has finished
+	 */
+	public boolean isReconciled() {
+		return reconciled;
+	}
+
+	/**
+	 * Returns the state of the indexes of every collection after the last reconciliation.
+	 *
+	 * @return the index state by collection name
+	 */
+	public Map<String, CollectionIndexes> getCollections() {
+		return Map.copyOf(collections);
+	}
+
+	private Mono<CollectionIndexes> reconcile(Class<?> documentType) {
+		String collection = mongoTemplate.getCollectionName(documentType);
+		ReactiveIndexOperations indexOps = mongoTemplate.indexOps(documentType);
+		List<IndexDefinition> declared = StreamSupport.stream(indexResolver.resolveIndexFor(documentType).spliterator(), false)
+			                                 .map(IndexDefinition.class::cast)
+			                                 .toList();
+		
+		return listIndexes(collection)
+			       .flatMapMany(existing -> Flux.fromIterable(declared)
+				                                .filter(definition -> findIndex(existing, definition) == null)
+				                                .filter(definition -> {
+					                                Document conflicting = findIndexNamed(existing, definition.getIndexOptions().getString("name"));
+					                                if (conflicting != null) {
+						                                // creating it would fail, the existing index has to be dropped first
+						                                log.error("Index {} on collection {} is {}, but declared as {}",
+							                                conflicting.getString("name"), collection, specOf(conflicting).toJson(), specOf(definition).toJson());
+					                                }
+					                                return conflicting == null;
+				                                }))
+			       .concatMap(definition -> {
+				       log.warn("Index {} is missing on collection {}, creating it", specOf(definition).toJson(), collection);
+				       return indexOps.createIndex(definition)
+					              .onErrorResume(e -> {
+						              log.error("Could not create index {} on collection {}", specOf(definition).toJson(), collection, e);
+						              return Mono.empty();
+					              });
+			       })
+			       .then(listIndexes(collection))
+			       .map(existing -> compare(declared, existing))
+			       .doOnNext(state -> {
+				       collections.put(collection, state);
+				       if (!state.isComplete()) {
+					       log.error("Collection {} is missing indexes {}", collection, state.missing());
+				       }
+				       if (!state.extra().isEmpty()) {
+					       log.warn("Collection {} has undeclared indexes {}", collection, state.extra());
+				       }
+			       });
+	}
+	
+	private Mono<List<Document>> listIndexes(String collection) {
+		return mongoTemplate.getCollection(collection)
+			       .flatMapMany(MongoCollection::listIndexes)
+			       .collectList();
+	}
+	
+	private static CollectionIndexes compare(List<IndexDefinition> declared, List<Document> existing) {
+		List<String> missing = new ArrayList<>();
+		List<Document> matched = new ArrayList<>();
+		for (IndexDefinition definition : declared) {
+			Document index = findIndex(existing, definition);
+			if (index == null) {
+				missing.add(specOf(definition).toJson());
+			} else {
+				matched.add(index);
+			}
+		}
+		
+		List<String> extra = existing.stream()
+			                     .filter(index -> !matched.contains(index) && !index.getString("name").equals("_id_"))
+			                     .map(index -> index.getString("name"))
+			                     .toList();
+		return new CollectionIndexes(List.copyOf(missing), extra);
+	}
+	
+	/**
+	 * Finds the existing index with the same keys, in the same order and with the same directions or
+	 * types, and the same behavioral options as a declared index.
+	 */
+	static Document findIndex(List<Document> existing, IndexDefinition definition) {
+		Document spec = specOf(definition);
+		return existing.stream()
+			       .filter(index -> specOf(index).equals(spec))
+			       .findFirst()
+			       .orElse(null);
+	}
+	
+	private static Document findIndexNamed(List<Document> existing, String name) {
+		return existing.stream()
+			       .filter(index -> name != null && name.equals(index.getString("name")))
+			       .findFirst()
+			       .orElse(null);
+	}
+	
+	private static Document specOf(IndexDefinition definition) {
+		return specOf(definition.getIndexKeys(), definition.getIndexOptions());
+	}
+	
+	private static Document specOf(Document index) {
+		return specOf(index.get("key", Document.class), index);
+	}
+	
+	/**
+	 * Builds a comparable specification of an index from its keys and options, in the form both
+	 * declared and existing indexes share. Directions are compared as integers, whatever numeric type
+	 * the server returns, and the `_fts`/`_ftsx` keys MongoDB stores for a text index are replaced by
+	 * its text fields, as they are declared.
+	 */
+	private static Document specOf(Document keys, Document options) {
+		Document key = new Document();
+		for (var field : keys.entrySet()) {
+			if (field.getKey().equals("_fts") || "text".equals(field.getValue())) {
+				textFields(keys, options).forEach(textField -> key.putIfAbsent(textField, "text"));
+			} else if (!field.getKey().equals("_ftsx")) {
+				key.append(field.getKey(), field.getValue() instanceof Number number ? number.intValue() : field.getValue());
+			}
+		}
+		
+		Document spec = new Document("key", key);
+		for (String option : COMPARED_OPTIONS) {
+			Object value = options.get(option);
+			if (value instanceof Number number) {
+				spec.append(option, number.longValue());
+			} else if (Boolean.TRUE.equals(value)) {
+				spec.append(option, true);
+			}
+		}
+		return spec;
+	}
+	
+	private static List<String> textFields(Document keys, Document options) {
+		Document weights = options.get("weights", Document.class);
+		if (keys.containsKey("_fts") && weights != null) {
+			return weights.keySet().stream().sorted().toList();
+		}
+		return keys.entrySet().stream()
+			       .filter(field -> "text".equals(field.getValue()))
+			       .map(Map.Entry::getKey)
+			       .sorted()
+			       .toList();
+	}
+}
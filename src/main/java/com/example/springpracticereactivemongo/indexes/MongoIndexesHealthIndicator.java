@@ -0,0 +1,44 @@
+package com.example.springpracticereactivemongo.indexes;
+
+import org.springframework.boot.actuate.health.AbstractReactiveHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reports whether every declared MongoDB index exists.
+ * <p>
+ * The indicator is `OUT_OF_SERVICE` until {@link MongoIndexReconciler} has finished its first
+ * reconciliation and `DOWN` while any declared index is missing. It belongs to the readiness
+ * group, so a node only receives traffic once all of its queries are backed by indexes.
+ * The missing and undeclared indexes of every collection are reported as details.
+ */
+@Component
+public class MongoIndexesHealthIndicator extends AbstractReactiveHealthIndicator {
+
+	private final MongoIndexReconciler reconciler;
+
+	/**
+	 * Constructor for MongoIndexesHealthIndicator.
+	 *
+	 * @param reconciler the reconciler whose results are reported
+	 */
+	public MongoIndexesHealthIndicator(MongoIndexReconciler reconciler) {
+		super("MongoDB index check failed");
+		this.reconciler = reconciler;
+	}
+
+	@Override
+	protected Mono<Health> doHealthCheck(Health.Builder builder) {
+		if (!reconciler.isReconciled()) {
+			return Mono.just(builder.outOfService().withDetail("reason", "Index reconciliation in progress").build());
+		}
+
+		boolean complete = true;
+		for (var collection : reconciler.getCollections().entrySet()) {
+			complete &= collection.getValue().isComplete();
+			builder.withDetail(collection.getKey(), collection.getValue());
+		}
+		return Mono.just((complete ? builder.up() : builder.down()).build());
+	}
+}
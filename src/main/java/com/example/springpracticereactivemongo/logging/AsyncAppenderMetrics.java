@@ -0,0 +1,61 @@
+package com.example.springpracticereactivemongo.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+
+/**
+ * Publishes the metrics of the asynchronous appenders attached to the root logger.
+ * <p>
+ * For every {@link LevelDiscardingAsyncAppender}, tagged with its name:
+ * <p>
+ * - {@value #QUEUE_METRIC}: the events waiting in its ring buffer;
+ * - {@value #EMITTED_METRIC}: the events published to its ring buffer to be written;
+ * - {@value #DROPPED_METRIC}: the events it did not write, tagged with the reason, `discarded` for events
+ *   below WARN discarded when the ring buffer was nearly full and `full` for events dropped when it was full.
+ */
+@Component
+public class AsyncAppenderMetrics implements MeterBinder {
+
+    static final String QUEUE_METRIC = "logback.async.queue.size";
+    static final String EMITTED_METRIC = "logback.async.emitted";
+    static final String DROPPED_METRIC = "logback.async.dropped";
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+            return;
+        }
+
+        Iterator<Appender<ILoggingEvent>> appenders = context.getLogger(Logger.ROOT_LOGGER_NAME).iteratorForAppenders();
+        while (appenders.hasNext()) {
+            if (appenders.next() instanceof LevelDiscardingAsyncAppender appender) {
+                Gauge.builder(QUEUE_METRIC, appender, LevelDiscardingAsyncAppender::getQueueSize)
+                        .description("Log events waiting to be written")
+                        .tag("appender", appender.getName())
+                        .register(registry);
+                FunctionCounter.builder(EMITTED_METRIC, appender, LevelDiscardingAsyncAppender::getEmittedCount)
+                        .description("Log events handed over to be written")
+                        .tag("appender", appender.getName())
+                        .register(registry);
+                FunctionCounter.builder(DROPPED_METRIC, appender, LevelDiscardingAsyncAppender::getDiscardedCount)
+                        .description("Log events not written to keep logging from blocking")
+                        .tags("appender", appender.getName(), "reason", "discarded")
+                        .register(registry);
+                FunctionCounter.builder(DROPPED_METRIC, appender, LevelDiscardingAsyncAppender::getDroppedCount)
+                        .description("Log events not written to keep logging from blocking")
+                        .tags("appender", appender.getName(), "reason", "full")
+                        .register(registry);
+            }
+        }
+    }
+}
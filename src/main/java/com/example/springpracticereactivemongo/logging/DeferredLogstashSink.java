@@ -0,0 +1,108 @@
+package com.example.springpracticereactivemongo.logging;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import net.logstash.logback.marker.LogstashMarker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.zalando.logbook.Correlation;
+import org.zalando.logbook.HttpLogFormatter;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.HttpResponse;
+import org.zalando.logbook.Logbook;
+import org.zalando.logbook.Precorrelation;
+import org.zalando.logbook.Sink;
+
+import java.io.IOException;
+
+/**
+ * A Logbook sink that logs HTTP exchanges as Logstash JSON, formatting them on the appender thread.
+ * <p>
+ * Like Logbook's `LogstashLogbackSink`, every exchange is logged at TRACE under the `http` field, but the
+ * calling thread, usually a Reactor Netty event loop, only logs an event holding the exchange. The exchange
+ * is formatted when the encoder writes the event, i.e. on the thread of the {@link LevelDiscardingAsyncAppender},
+ * so exchanges discarded when its ring buffer is nearly full are never formatted at all.
+ */
+public class DeferredLogstashSink implements Sink {
+
+    private static final String BASE_FIELD = "http";
+
+    private final HttpLogFormatter formatter;
+    private final Logger log;
+
+    /**
+     * Constructor for DeferredLogstashSink.
+     *
+     * @param formatter the formatter of the exchanges
+     */
+    public DeferredLogstashSink(HttpLogFormatter formatter) {
+        this(formatter, LoggerFactory.getLogger(Logbook.class));
+    }
+
+    DeferredLogstashSink(HttpLogFormatter formatter, Logger log) {
+        this.formatter = formatter;
+        this.log = log;
+    }
+
+    @Override
+    public boolean isActive() {
+        return log.isTraceEnabled();
+    }
+
+    @Override
+    public void write(Precorrelation precorrelation, HttpRequest request) {
+        log.atTrace()
+                .addMarker(new ExchangeMarker(generator -> generator.writeRawValue(formatter.format(precorrelation, request))))
+                .log(request.getMethod() + " " + request.getRequestUri());
+    }
+
+    @Override
+    public void write(Correlation correlation, HttpRequest request, HttpResponse response) {
+        StringBuilder message = new StringBuilder(64).append(response.getStatus());
+        if (response.getReasonPhrase() != null) {
+            message.append(' ').append(response.getReasonPhrase());
+        }
+        message.append(' ').append(request.getMethod()).append(' ').append(request.getRequestUri());
+
+        log.atTrace()
+                .addMarker(new ExchangeMarker(generator -> generator.writeRawValue(formatter.format(correlation, response))))
+                .log(message.toString());
+    }
+
+    /**
+     * Writes a formatted exchange to a JSON generator.
+     */
+    @FunctionalInterface
+    private interface ExchangeWriter {
+
+        void writeTo(JsonGenerator generator) throws IOException;
+    }
+
+    /**
+     * A marker writing the exchange under the `http` field when the event is encoded.
+     */
+    private static final class ExchangeMarker extends LogstashMarker {
+
+        private final transient ExchangeWriter writer;
+
+        ExchangeMarker(ExchangeWriter writer) {
+            super(MARKER_NAME_PREFIX + "HTTP_EXCHANGE");
+            this.writer = writer;
+        }
+
+        @Override
+        public void writeTo(JsonGenerator generator) throws IOException {
+            generator.writeFieldName(BASE_FIELD);
+            writer.writeTo(generator);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+}
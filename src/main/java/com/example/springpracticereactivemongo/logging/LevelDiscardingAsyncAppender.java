@@ -0,0 +1,113 @@
+package com.example.springpracticereactivemongo.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import net.logstash.logback.appender.LoggingEventAsyncDisruptorAppender;
+import net.logstash.logback.appender.listener.AppenderListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An asynchronous appender that hands log events over to its delegate appenders through a lock-free ring buffer.
+ * <p>
+ * Logging threads, such as the Reactor Netty event loops, only publish the event to the ring buffer;
+ * encoding it as JSON and writing it to the console happen on the appender thread. Logging never blocks:
+ * <p>
+ * - once fewer than `discardingThreshold` slots are free, events below WARN are discarded, keeping room
+ *   for warnings and errors during a burst;
+ * - once the ring buffer is full, every new event is dropped, as the append timeout is 0.
+ * <p>
+ * The emitted, discarded and dropped events are counted and exposed, along with the queue depth, by
+ * {@link AsyncAppenderMetrics}.
+ */
+public class LevelDiscardingAsyncAppender extends LoggingEventAsyncDisruptorAppender {
+
+    private final AtomicLong emitted = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private int discardingThreshold = -1;
+
+    /**
+     * Returns the number of free ring buffer slots below which events below WARN are discarded.
+     *
+     * @return the threshold, or -1 for a fifth of the ring buffer
+     */
+    public int getDiscardingThreshold() {
+        return discardingThreshold;
+    }
+
+    /**
+     * Sets the number of free ring buffer slots below which events below WARN are discarded.
+     *
+     * @param discardingThreshold the threshold, 0 to never discard by level, or -1 for a fifth of the ring buffer
+     */
+    public void setDiscardingThreshold(int discardingThreshold) {
+        this.discardingThreshold = discardingThreshold;
+    }
+
+    @Override
+    public void start() {
+        if (discardingThreshold < 0) {
+            discardingThreshold = getRingBufferSize() / 5;
+        }
+        addListener(new AppenderListener<>() {
+            @Override
+            public void eventAppended(Appender<ILoggingEvent> appender, ILoggingEvent event, long durationInNanos) {
+                emitted.incrementAndGet();
+            }
+
+            @Override
+            public void eventAppendFailed(Appender<ILoggingEvent> appender, ILoggingEvent event, Throwable reason) {
+                dropped.incrementAndGet();
+            }
+        });
+        super.start();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (isStarted() && !event.getLevel().isGreaterOrEqual(Level.WARN)
+                && getDisruptor().getRingBuffer().remainingCapacity() < discardingThreshold) {
+            discarded.incrementAndGet();
+            return;
+        }
+        super.append(event);
+    }
+
+    /**
+     * Returns the number of events waiting in the ring buffer.
+     *
+     * @return the queue depth, 0 if the appender is not started
+     */
+    public long getQueueSize() {
+        return isStarted() ? getRingBufferSize() - getDisruptor().getRingBuffer().remainingCapacity() : 0;
+    }
+
+    /**
+     * Returns the number of events published to the ring buffer to be written.
+     *
+     * @return the number of emitted events since the appender started
+     */
+    public long getEmittedCount() {
+        return emitted.get();
+    }
+
+    /**
+     * Returns the number of events below WARN discarded because the ring buffer was nearly full.
+     *
+     * @return the number of discarded events since the appender started
+     */
+    public long getDiscardedCount() {
+        return discarded.get();
+    }
+
+    /**
+     * Returns the number of events dropped because the ring buffer was full.
+     *
+     * @return the number of dropped events since the appender started
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.springpracticereactivemongo.logging;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import org.zalando.logbook.HttpRequest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * Decides which HTTP exchanges are logged, sampling a share of the requests of every route.
+ * <p>
+ * The rate of a request is that of the first route pattern matching its path, or the default rate
+ * if none does. A rate of 1 logs every request and 0 none. Logbook only buffers the bodies of the
+ * requests this condition accepts, so the logging cost grows with the sampled traffic rather than
+ * with the total traffic.
+ */
+public class RequestSampling implements Predicate<HttpRequest> {
+
+    private final double defaultRate;
+    private final Map<PathPattern, Double> routeRates = new LinkedHashMap<>();
+
+    /**
+     * Constructor for RequestSampling.
+     *
+     * @param defaultRate the share of requests logged on routes without a rate of their own
+     * @param routeRates  the shares of requests logged by route pattern, e.g. `/api/v3/beer/**`, in matching order
+     */
+    public RequestSampling(double defaultRate, Map<String, Double> routeRates) {
+        this.defaultRate = defaultRate;
+        routeRates.forEach((pattern, rate) -> this.routeRates.put(PathPatternParser.defaultInstance.parse(pattern), rate));
+    }
+
+    @Override
+    public boolean test(HttpRequest request) {
+        double rate = rateOf(request.getPath());
+        return rate >= 1 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    /**
+     * Returns the sampling rate of a path.
+     *
+     * @param path the path of a request
+     * @return the rate of the first matching route pattern, or the default rate
+     */
+    double rateOf(String path) {
+        PathContainer container = PathContainer.parsePath(path);
+        for (Map.Entry<PathPattern, Double> route : routeRates.entrySet()) {
+            if (route.getKey().matches(container)) {
+                return route.getValue();
+            }
+        }
+        return defaultRate;
+    }
+}
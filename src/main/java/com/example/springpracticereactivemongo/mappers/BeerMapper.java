@@ -3,6 +3,7 @@ package com.example.springpracticereactivemongo.mappers;
 import com.example.springpracticereactivemongo.domain.Beer;
 import com.example.springpracticereactivemongo.model.BeerDTO;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 /**
  * Mapper interface for converting between Beer and BeerDTO objects.
@@ -26,4 +27,16 @@ public interface BeerMapper {
      * @return the corresponding Beer entity
      */
     Beer beerDTOToBeer(BeerDTO beerDTO);
+
+    /**
+     * Converts a BeerDTO object to a new Beer entity.
+     * The identifier and version sent by the client are ignored, so the entity is inserted with a
+     * freshly generated identifier and its initial version.
+     *
+     * @param beerDTO the BeerDTO object to convert
+     * @return the corresponding new Beer entity
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    Beer beerDTOToNewBeer(BeerDTO beerDTO);
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.example.springpracticereactivemongo.mappers;
 import com.example.springpracticereactivemongo.domain.Customer;
 import com.example.springpracticereactivemongo.model.CustomerDTO;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 /**
  * Mapper interface for converting between Customer and CustomerDTO objects.
@@ -26,4 +27,16 @@ public interface CustomerMapper {
      * @return the corresponding Customer entity
      */
     Customer customerDTOToCustomer(CustomerDTO customerDTO);
+
+    /**
+     * Converts a CustomerDTO object to a new Customer entity.
+     * The identifier and version sent by the client are ignored, so the entity is inserted with a
+     * freshly generated identifier and its initial version.
+     *
+     * @param customerDTO the CustomerDTO object to convert
+     * @return the corresponding new Customer entity
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    Customer customerDTOToNewCustomer(CustomerDTO customerDTO);
 }
\ No newline at end of file
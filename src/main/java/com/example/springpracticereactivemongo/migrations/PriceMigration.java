@@ -0,0 +1,171 @@
+package com.example.springpracticereactivemongo.migrations;
+
+import com.example.springpracticereactivemongo.domain.Beer;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Online migration of beer prices stored as strings to Decimal128.
+ * <p>
+ * Beers written before prices were mapped to Decimal128 hold their price as a string, which
+ * compares lexicographically and is skipped by numeric price queries. Once the application is
+ * ready, this migration walks those beers in `_id` order, in batches of
+ * `app.beer.price-migration.batch-size`, and rewrites each batch with one unordered bulk write.
+ * It pauses for `app.beer.price-migration.pause` between batches to throttle the load it puts on
+ * the database while serving traffic. Each update only applies while the price is still the
+ * string that was read, so concurrent writes are never overwritten. Unparsable prices are logged
+ * and left as they are. The migration is idempotent and does nothing once all prices are migrated.
+ * <p>
+ * The migration is switched off by `app.beer.price-migration.enabled`. The switch is read when the
+ * application starts rather than being a bean condition, so it still works when the bean definitions
+ * were generated ahead of time.
+ */
+@Component
+public class PriceMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceMigration.class);
+
+    /**
+     * The outcome of one batch.
+     *
+     * @param lastId   the `_id` of the last beer read, where the next batch starts after
+     * @param read     the number of beers read
+     * @param migrated the number of beers migrated
+     */
+    record Batch(Object lastId, int read, long migrated) {
+    }
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration pause;
+
+    /**
+     * Constructor for PriceMigration.
+     *
+     * @param mongoTemplate The template used to read and rewrite beers.
+     * @param enabled       Whether the migration starts once the application is ready.
+     * @param batchSize     The number of beers read and rewritten per batch.
+     * @param pause         The pause between two batches.
+     */
+    public PriceMigration(
+            ReactiveMongoTemplate mongoTemplate,
+            @Value("${app.beer.price-migration.enabled:true}") boolean enabled,
+            @Value("${app.beer.price-migration.batch-size:500}") int batchSize,
+            @Value("${app.beer.price-migration.pause:200ms}") Duration pause
+    ) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.pause = pause;
+    }
+
+    /**
+     * Starts the migration in the background once the application is ready, unless it is disabled.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            log.info("Beer price migration is disabled");
+            return;
+        }
+        migrate().subscribe(
+                migrated -> log.info("Migrated {} beer prices to Decimal128", migrated),
+                e -> log.error("Beer price migration failed", e)
+        );
+    }
+
+    /**
+     * Migrates all beer prices stored as strings.
+     *
+     * @return A Mono emitting the number of migrated beers.
+     */
+    public Mono<Long> migrate() {
+        return migrateBatch(null)
+                .expand(batch -> batch.read() < batchSize
+                        ? Mono.empty()
+                        : migrateBatch(batch.lastId()).delaySubscription(pause))
+                .reduce(0L, (migrated, batch) -> migrated + batch.migrated());
+    }
+
+    /**
+     * Migrates the next batch of beer prices stored as strings.
+     *
+     * @param afterId The `_id` the batch starts after, or null for the first batch.
+     * @return A Mono emitting the outcome of the batch.
+     */
+    private Mono<Batch> migrateBatch(Object afterId) {
+        Query query = query(where("price").type(JsonSchemaObject.Type.STRING))
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .limit(batchSize);
+        if (afterId != null) {
+            query.addCriteria(where("_id").gt(afterId));
+        }
+        query.fields().include("price");
+
+        String collection = mongoTemplate.getCollectionName(Beer.class);
+        return mongoTemplate.find(query, Document.class, collection)
+                .collectList()
+                .flatMap(documents -> {
+                    if (documents.isEmpty()) {
+                        return Mono.just(new Batch(afterId, 0, 0));
+                    }
+                    Object lastId = documents.getLast().get("_id");
+                    ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+                    int updates = 0;
+                    for (Document document : documents) {
+                        Decimal128 price = toDecimal128(document);
+                        if (price != null) {
+                            bulk.updateOne(
+                                    query(where("_id").is(document.get("_id")).and("price").is(document.getString("price"))),
+                                    Update.update("price", price)
+                            );
+                            updates++;
+                        }
+                    }
+                    if (updates == 0) {
+                        return Mono.just(new Batch(lastId, documents.size(), 0));
+                    }
+                    return bulk.execute()
+                            .map(result -> new Batch(lastId, documents.size(), result.getModifiedCount()));
+                });
+    }
+
+    /**
+     * Converts the price of a beer to Decimal128.
+     * A price is unparsable if it is not a number, or if Decimal128 cannot hold it exactly, e.g. it has
+     * more than 34 significant digits or its exponent is out of range.
+     *
+     * @param document The beer with its price stored as a string.
+     * @return the price as Decimal128, or null if it is unparsable
+     */
+    static Decimal128 toDecimal128(Document document) {
+        String price = document.getString("price");
+        try {
+            return new Decimal128(new BigDecimal(price));
+        } catch (NumberFormatException e) {
+            log.warn("Beer {} has an unparsable price {}, leaving it as is", document.get("_id"), price);
+            return null;
+        }
+    }
+}
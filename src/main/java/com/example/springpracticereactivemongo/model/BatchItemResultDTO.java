@@ -0,0 +1,56 @@
+package com.example.springpracticereactivemongo.model;
+
+/**
+ * A Data Transfer Object (DTO) reporting the outcome of a single item of a batch request.
+ * This class uses Java's `record` feature to define immutable data objects.
+ */
+public record BatchItemResultDTO(
+        /**
+         * The zero-based position of the item in the batch request.
+         */
+        long index,
+
+        /**
+         * The unique identifier assigned to the item.
+         * Null if the item was rejected.
+         */
+        String id,
+
+        /**
+         * The reason the item was rejected.
+         * Null if the item was stored.
+         */
+        String error
+) {
+    /**
+     * Creates a result for an item that was stored.
+     *
+     * @param index The position of the item in the batch request.
+     * @param id    The unique identifier assigned to the item.
+     * @return the result of the stored item
+     */
+    public static BatchItemResultDTO stored(long index, String id) {
+        return new BatchItemResultDTO(index, id, null);
+    }
+
+    /**
+     * Creates a result for an item that was rejected.
+     *
+     * @param index The position of the item in the batch request.
+     * @param error The reason the item was rejected.
+     * @return the result of the rejected item
+     */
+    public static BatchItemResultDTO rejected(long index, String error) {
+        return new BatchItemResultDTO(index, null, error);
+    }
+
+    /**
+     * Returns a copy of this result moved to another position.
+     *
+     * @param index The new position of the item.
+     * @return a result with the same id and error at the given position
+     */
+    public BatchItemResultDTO withIndex(long index) {
+        return new BatchItemResultDTO(index, id, error);
+    }
+}
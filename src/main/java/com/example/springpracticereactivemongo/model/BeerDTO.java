@@ -60,7 +60,13 @@ public record BeerDTO(
          * The date and time when the beer was last modified.
          * Optional field.
          */
-        LocalDateTime lastModifiedDate
+        LocalDateTime lastModifiedDate,
+
+        /**
+         * The version of the beer, incremented on every write.
+         * Exposed as the ETag of the beer; optional field.
+         */
+        Long version
 ) {
     /**
      * Constructor for creating a BeerDTO with only the beer name.
@@ -68,7 +74,7 @@ public record BeerDTO(
      * @param beerName The name of the beer.
      */
     public BeerDTO(String beerName) {
-        this(null, beerName, null, null, null, null, null, null);
+        this(null, beerName, null, null, null, null, null, null, null);
     }
 
     /**
@@ -78,7 +84,7 @@ public record BeerDTO(
      * @param beerName The name of the beer.
      */
     public BeerDTO(String id, String beerName) {
-        this(id, beerName, null, null, null, null, null, null);
+        this(id, beerName, null, null, null, null, null, null, null);
     }
 
     /**
@@ -97,6 +103,6 @@ public record BeerDTO(
             Integer quantityOnHand,
             BigDecimal price
     ) {
-        this(null, beerName, beerStyle, upc, quantityOnHand, price, null, null);
+        this(null, beerName, beerStyle, upc, quantityOnHand, price, null, null, null);
     }
 }
\ No newline at end of file
@@ -0,0 +1,82 @@
+package com.example.springpracticereactivemongo.model;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+/**
+ * The criteria beers are filtered by in a Beer list query.
+ * This class uses Java's `record` feature to define immutable data objects.
+ * All criteria are optional and combined with a logical AND.
+ */
+public record BeerFilter(
+        /**
+         * The styles of the beers to return.
+         * Optional field; all styles if null or empty.
+         */
+        Set<String> beerStyles,
+
+        /**
+         * The prefix the names of the beers to return start with, case-sensitive.
+         * Optional field; all names if null.
+         */
+        String namePrefix,
+
+        /**
+         * The lowest price of the beers to return, inclusive.
+         * Optional field; no lower bound if null.
+         */
+        BigDecimal minPrice,
+
+        /**
+         * The highest price of the beers to return, inclusive.
+         * Optional field; no upper bound if null.
+         */
+        BigDecimal maxPrice,
+
+        /**
+         * The lowest quantity on hand of the beers to return, inclusive.
+         * Optional field; no lower bound if null.
+         */
+        Integer minQuantityOnHand,
+
+        /**
+         * The highest quantity on hand of the beers to return, inclusive.
+         * Optional field; no upper bound if null.
+         */
+        Integer maxQuantityOnHand
+) {
+    /**
+     * A filter matching all beers.
+     */
+    public static final BeerFilter NONE = new BeerFilter(null, null, null, null, null, null);
+
+    /**
+     * Constructor for a filter of all beers of a style.
+     *
+     * @param beerStyle The style of the beers to return, or null for all styles.
+     */
+    public BeerFilter(String beerStyle) {
+        this(beerStyle != null ? Set.of(beerStyle) : null, null, null, null, null, null);
+    }
+
+    /**
+     * Returns the single style this filter restricts beers to, if it has no other criteria.
+     *
+     * @return the style, or null if the filter matches no single style or has other criteria
+     */
+    public String singleStyle() {
+        boolean onlyStyles = namePrefix == null && minPrice == null && maxPrice == null
+                && minQuantityOnHand == null && maxQuantityOnHand == null;
+        return onlyStyles && beerStyles != null && beerStyles.size() == 1 ? beerStyles.iterator().next() : null;
+    }
+
+    /**
+     * Checks whether this filter matches all beers.
+     *
+     * @return true if no criterion is set
+     */
+    public boolean isEmpty() {
+        return (beerStyles == null || beerStyles.isEmpty()) && namePrefix == null && minPrice == null
+                && maxPrice == null && minQuantityOnHand == null && maxQuantityOnHand == null;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.springpracticereactivemongo.model;
+
+import java.util.Set;
+
+/**
+ * The criteria of a Beer list query.
+ * This class uses Java's `record` feature to define immutable data objects.
+ */
+public record BeerQuery(
+        /**
+         * The criteria of the beers to return.
+         * Optional field; all beers if null.
+         */
+        BeerFilter filter,
+
+        /**
+         * The identifier of the last beer of the previous page.
+         * Optional field; the list starts at the first beer if null.
+         */
+        String afterId,
+
+        /**
+         * The maximum number of beers to return.
+         * Optional field; if set, beers are ordered by identifier so that pages are stable.
+         */
+        Integer limit,
+
+        /**
+         * The BeerDTO fields to read from the database.
+         * Optional field; all fields if null or empty.
+         */
+        Set<String> fields
+) {
+    /**
+     * Constructor for a query of all beers matching a filter, with all fields.
+     *
+     * @param filter The criteria of the beers to return, or null for all beers.
+     */
+    public BeerQuery(BeerFilter filter) {
+        this(filter, null, null, null);
+    }
+}
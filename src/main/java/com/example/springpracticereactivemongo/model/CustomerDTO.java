@@ -31,7 +31,13 @@ public record CustomerDTO(
 		 * The date and time when the customer was last modified.
 		 * Optional field.
 		 */
-		LocalDateTime lastModifiedDate
+		LocalDateTime lastModifiedDate,
+
+		/**
+		 * The version of the customer, incremented on every write.
+		 * Exposed as the ETag of the customer; optional field.
+		 */
+		Long version
 ) {
 	/**
 	 * Constructor for creating a CustomerDTO with only the customer name.
@@ -39,6 +45,6 @@ public record CustomerDTO(
 	 * @param customerName The name of the customer.
 	 */
 	public CustomerDTO(String customerName) {
-		this(null, customerName, null, null);
+		this(null, customerName, null, null, null);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.example.springpracticereactivemongo.model;
+
+import java.util.Set;
+
+/**
+ * The criteria of a Customer list query.
+ * This class uses Java's `record` feature to define immutable data objects.
+ */
+public record CustomerQuery(
+		/**
+		 * The identifier of the last customer of the previous page.
+		 * Optional field; the list starts at the first customer if null.
+		 */
+		String afterId,
+
+		/**
+		 * The maximum number of customers to return.
+		 * Optional field; if set, customers are ordered by identifier so that pages are stable.
+		 */
+		Integer limit,
+
+		/**
+		 * The CustomerDTO fields to read from the database.
+		 * Optional field; all fields if null or empty.
+		 */
+		Set<String> fields
+) {
+	/**
+	 * Constructor for a query of all customers, with all fields.
+	 */
+	public CustomerQuery() {
+		this(null, null, null);
+	}
+}
@@ -0,0 +1,17 @@
+package com.example.springpracticereactivemongo.model;
+
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * A Data Transfer Object (DTO) representing a stock movement of a Beer.
+ * This class uses Java's `record` feature to define immutable data objects.
+ */
+public record InventoryAdjustmentDTO(
+        /**
+         * The change in quantity on hand.
+         * Positive to receive stock, negative to take stock out. Must not be null.
+         */
+        @NotNull
+        Integer delta
+) {
+}
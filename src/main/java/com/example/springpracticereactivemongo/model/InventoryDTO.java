@@ -0,0 +1,18 @@
+package com.example.springpracticereactivemongo.model;
+
+/**
+ * A Data Transfer Object (DTO) representing the stock level of a Beer.
+ * This class uses Java's `record` feature to define immutable data objects.
+ */
+public record InventoryDTO(
+        /**
+         * The unique identifier for the beer.
+         */
+        String id,
+
+        /**
+         * The quantity of beer available on hand.
+         */
+        Integer quantityOnHand
+) {
+}
@@ -0,0 +1,132 @@
+package com.example.springpracticereactivemongo.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.util.concurrent.EventExecutor;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.client.ReactorResourceFactory;
+import org.springframework.stereotype.Component;
+import reactor.netty.resources.LoopResources;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long tasks wait before the Reactor Netty event loops run them.
+ * <p>
+ * At every interval, a no-op task is submitted to each server event loop and the time until it runs
+ * is recorded by the {@value #LAG_METRIC} timer, tagged with the loop. An idle loop runs it almost
+ * immediately; a loop busy with blocking calls or heavy CPU work makes it wait behind the queued
+ * I/O, so the lag rises before request latencies do. The probe costs one tiny task per loop and
+ * interval and is never queued twice on the same loop.
+ * <p>
+ * Probing is switched off by `app.event-loop-lag.enabled`, which is read when the application starts
+ * rather than being a bean condition, so it also applies to bean definitions generated ahead of time.
+ */
+@Component
+public class EventLoopLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(EventLoopLagMonitor.class);
+
+    static final String LAG_METRIC = "reactor.netty.eventloop.lag";
+
+    private final ObjectProvider<ReactorResourceFactory> resourceFactory;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Duration interval;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("event-loop-lag").daemon().factory()
+    );
+
+    /**
+     * Constructor for EventLoopLagMonitor.
+     *
+     * @param resourceFactory the factory of the event loops the server runs on
+     * @param meterRegistry   the registry the lag timer is published to
+     * @param enabled         whether the event loops are probed
+     * @param interval        the time between two probes of a loop
+     */
+    public EventLoopLagMonitor(
+            ObjectProvider<ReactorResourceFactory> resourceFactory,
+            MeterRegistry meterRegistry,
+            @Value("${app.event-loop-lag.enabled:true}") boolean enabled,
+            @Value("${app.event-loop-lag.interval:500ms}") Duration interval
+    ) {
+        this.resourceFactory = resourceFactory;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.interval = interval;
+    }
+
+    /**
+     * Starts probing the server event loops once the application is ready, unless it is disabled.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Event loop lag monitoring is disabled");
+            return;
+        }
+        ReactorResourceFactory factory = resourceFactory.getIfAvailable();
+        if (factory == null) {
+            log.info("No Reactor Netty resources, event loop lag is not monitored");
+            return;
+        }
+
+        List<Probe> probes = new ArrayList<>();
+        for (EventExecutor executor : factory.getLoopResources().onServer(LoopResources.DEFAULT_NATIVE)) {
+            probes.add(new Probe(executor, Timer.builder(LAG_METRIC)
+                    .description("Time a task waits before an event loop runs it")
+                    .tag("loop", String.valueOf(probes.size()))
+                    .publishPercentiles(0.99)
+                    .register(meterRegistry)));
+        }
+        scheduler.scheduleAtFixedRate(() -> probes.forEach(Probe::submit), interval.toNanos(), interval.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stops probing.
+     */
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * The probe of one event loop.
+     */
+    private static final class Probe {
+
+        private final EventExecutor executor;
+        private final Timer lag;
+        private volatile boolean pending;
+
+        Probe(EventExecutor executor, Timer lag) {
+            this.executor = executor;
+            this.lag = lag;
+        }
+
+        void submit() {
+            // a loop that has not run the previous probe yet is already reported as lagging
+            if (pending || executor.isShuttingDown()) {
+                return;
+            }
+            pending = true;
+            long submitted = System.nanoTime();
+            executor.execute(() -> {
+                lag.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+                pending = false;
+            });
+        }
+    }
+}
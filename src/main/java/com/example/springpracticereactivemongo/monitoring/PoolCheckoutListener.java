@@ -0,0 +1,57 @@
+package com.example.springpracticereactivemongo.monitoring;
+
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long MongoDB operations wait to check a connection out of the pool.
+ * <p>
+ * Waits are recorded by the {@value #CHECKOUT_METRIC} timer, tagged with the server address and
+ * the outcome: `success`, or the reason the checkout failed, e.g. `timeout`. A growing checkout
+ * time means the pool is too small for the load, which the pool size gauges alone do not show.
+ */
+public class PoolCheckoutListener implements ConnectionPoolListener {
+
+    static final String CHECKOUT_METRIC = "mongodb.driver.pool.checkout";
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Constructor for PoolCheckoutListener.
+     *
+     * @param meterRegistry the registry the checkout timer is published to
+     */
+    public PoolCheckoutListener(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        record(event.getConnectionId().getServerId(), "success", event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        record(event.getServerId(), event.getReason().name().toLowerCase(), event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    private void record(ServerId serverId, String outcome, long elapsedNanos) {
+        String address = serverId.getAddress().toString();
+        timers.computeIfAbsent(address + " " + outcome, _ -> Timer.builder(CHECKOUT_METRIC)
+                        .description("Time spent waiting to check a connection out of the pool")
+                        .tag("server.address", address)
+                        .tag("outcome", outcome)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry))
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+}
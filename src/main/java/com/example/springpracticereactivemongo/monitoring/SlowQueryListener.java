@@ -0,0 +1,262 @@
+package com.example.springpracticereactivemongo.monitoring;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs MongoDB commands slower than a threshold, together with their query shape and query plan.
+ * <p>
+ * When a command starts, only its name and collection are recorded, since whether it is slow is
+ * only known once it has finished and by then its command document, only valid during the start
+ * callback, is gone. A slow command is logged with its name, collection and latency, and requests
+ * that the next command of the same name on the same collection is sampled: that command is copied
+ * when it starts and reduced to its shape, which keeps its operators and field names and replaces
+ * every value with `?`, so slow commands can be grouped without logging data. If the sampled command
+ * is slow too, it is logged with its shape and, the first time the shape is slow and again at most
+ * once per explain interval, re-run as `explain` in the background. Its winning plan is logged, e.g.
+ * `LIMIT > FETCH > IXSCAN(beerStyle_price)`, which shows at a glance whether an index was used.
+ * Commands are thus only copied and shaped after a slow command, and the sample requests and explained
+ * shapes are held in caches bounded in size and expiring after the explain interval.
+ * <p>
+ * Only commands that can be explained are tracked; their latencies, like those of all other commands,
+ * are recorded per command and collection by the `mongodb.driver.commands` timer.
+ */
+public class SlowQueryListener implements CommandListener {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryListener.class);
+
+    /**
+     * Commands that can be explained.
+     */
+    static final Set<String> EXPLAINABLE_COMMANDS = Set.of(
+            "find", "aggregate", "count", "distinct", "update", "delete", "findAndModify"
+    );
+
+    /**
+     * Command fields describing which documents are read or written, and in what order.
+     */
+    private static final List<String> SHAPE_FIELDS = List.of(
+            "filter", "query", "q", "sort", "projection", "pipeline", "updates", "deletes", "key"
+    );
+
+    /**
+     * The maximum number of shapes tracked for rate limiting, and of requested samples.
+     */
+    private static final int MAXIMUM_SHAPES = 1000;
+
+    /**
+     * The commands of one name on one collection.
+     *
+     * @param commandName the name of the commands
+     * @param collection  the collection the commands run on
+     */
+    private record Target(String commandName, String collection) {
+    }
+
+    /**
+     * A command in flight.
+     *
+     * @param target  the name and collection of the command
+     * @param shape   the shape of the command if it was sampled, or null
+     * @param command a copy of the command if it was sampled, or null
+     */
+    private record StartedCommand(Target target, String shape, BsonDocument command) {
+    }
+
+    private final ObjectProvider<ReactiveMongoTemplate> mongoTemplate;
+    private final long thresholdNanos;
+    private final Map<Integer, StartedCommand> startedCommands = new ConcurrentHashMap<>();
+    private final Cache<String, Boolean> explainedShapes;
+    private final Cache<Target, Boolean> requestedSamples;
+
+    /**
+     * Constructor for SlowQueryListener.
+     *
+     * @param mongoTemplate   the template used to explain slow commands, resolved lazily since the
+     *                        listener is registered while the client the template uses is created
+     * @param threshold       the latency from which a command is logged
+     * @param explainInterval the minimum time between two explains of the same shape
+     */
+    public SlowQueryListener(ObjectProvider<ReactiveMongoTemplate> mongoTemplate, Duration threshold, Duration explainInterval) {
+        this.mongoTemplate = mongoTemplate;
+        this.thresholdNanos = threshold.toNanos();
+        this.explainedShapes = newCache(explainInterval);
+        this.requestedSamples = newCache(explainInterval);
+    }
+
+    private static <K> Cache<K, Boolean> newCache(Duration explainInterval) {
+        return Caffeine.newBuilder()
+                .maximumSize(MAXIMUM_SHAPES)
+                .expireAfterWrite(explainInterval)
+                .build();
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        String commandName = event.getCommandName();
+        if (!EXPLAINABLE_COMMANDS.contains(commandName)) {
+            return;
+        }
+
+        // the command document is only valid during the callback; its first field names the collection
+        BsonDocument command = event.getCommand();
+        BsonValue collection = command.get(commandName);
+        Target target = new Target(commandName, collection != null && collection.isString() ? collection.asString().getValue() : "");
+        if (requestedSamples.estimatedSize() == 0 || requestedSamples.asMap().remove(target) == null) {
+            startedCommands.put(event.getRequestId(), new StartedCommand(target, null, null));
+        } else {
+            startedCommands.put(event.getRequestId(), new StartedCommand(target, shapeOf(commandName, target.collection(), command), command.clone()));
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        finished(event.getRequestId(), event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        finished(event.getRequestId(), event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    private void finished(int requestId, String commandName, long elapsedNanos) {
+        StartedCommand started = startedCommands.remove(requestId);
+        if (started == null || elapsedNanos < thresholdNanos) {
+            return;
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        if (started.shape() == null) {
+            log.warn("Slow MongoDB command {} on {} took {} ms", commandName, started.target().collection(), elapsedMillis);
+            requestedSamples.put(started.target(), Boolean.TRUE);
+            return;
+        }
+
+        log.warn("Slow MongoDB command {} on {} took {} ms: {}", commandName, started.target().collection(), elapsedMillis, started.shape());
+        if (explainedShapes.asMap().putIfAbsent(started.shape(), Boolean.TRUE) == null) {
+            explain(started.shape(), started.command());
+        }
+    }
+
+    /**
+     * Re-runs a command as `explain` in the background and logs its winning plan.
+     */
+    private void explain(String shape, BsonDocument command) {
+        ReactiveMongoTemplate template = mongoTemplate.getIfAvailable();
+        if (template == null) {
+            return;
+        }
+
+        Document explain = new Document("explain", explainable(command)).append("verbosity", "queryPlanner");
+        template.executeCommand(explain)
+                .subscribe(
+                        result -> log.warn("Plan of slow MongoDB command {}: {}", shape, planOf(result)),
+                        e -> log.debug("Could not explain slow MongoDB command {}", shape, e)
+                );
+    }
+
+    /**
+     * Strips the session, cluster time and other generic fields the driver adds to every command,
+     * which `explain` does not accept in the explained command.
+     */
+    private static BsonDocument explainable(BsonDocument command) {
+        BsonDocument explainable = new BsonDocument();
+        command.forEach((key, value) -> {
+            if (!key.startsWith("$") && !key.equals("lsid") && !key.equals("txnNumber")
+                    && !key.equals("readConcern") && !key.equals("writeConcern")) {
+                explainable.append(key, value);
+            }
+        });
+        return explainable;
+    }
+
+    /**
+     * Builds the shape of a command from its name, collection and the structure of its criteria.
+     *
+     * @param commandName the name of the command
+     * @param collection  the collection the command runs on
+     * @param command     the command document
+     * @return the shape, e.g. `find beer {"filter": {"beerStyle": {"$in": ["?"]}}, "sort": {"price": 1}}`
+     */
+    static String shapeOf(String commandName, String collection, BsonDocument command) {
+        BsonDocument shape = new BsonDocument();
+        for (String field : SHAPE_FIELDS) {
+            BsonValue value = command.get(field);
+            if (value != null) {
+                shape.append(field, field.equals("sort") ? value : shapeOf(value));
+            }
+        }
+        return commandName + " " + collection + " " + shape.toJson();
+    }
+
+    private static BsonValue shapeOf(BsonValue value) {
+        if (value.isDocument()) {
+            BsonDocument shape = new BsonDocument();
+            value.asDocument().forEach((key, child) -> shape.append(key, shapeOf(child)));
+            return shape;
+        }
+        if (value.isArray()) {
+            // arrays of criteria keep one entry per distinct shape, arrays of values collapse to one `?`
+            BsonArray shape = new BsonArray();
+            for (BsonValue element : value.asArray()) {
+                BsonValue elementShape = shapeOf(element);
+                if (!shape.contains(elementShape)) {
+                    shape.add(elementShape);
+                }
+            }
+            return shape;
+        }
+        return new BsonString("?");
+    }
+
+    /**
+     * Summarizes the winning plan of an explain result as its chain of stages, with the index of every index scan.
+     */
+    static String planOf(Document explain) {
+        Document queryPlanner = explain.get("queryPlanner", Document.class);
+        if (queryPlanner == null && explain.get("stages") instanceof List<?> stages && !stages.isEmpty()
+                && stages.getFirst() instanceof Document first) {
+            // aggregations report the plan of their $cursor stage
+            queryPlanner = first.get("$cursor", new Document()).get("queryPlanner", Document.class);
+        }
+        if (queryPlanner == null) {
+            return explain.toJson();
+        }
+
+        List<String> stages = new ArrayList<>();
+        collectStages(queryPlanner.get("winningPlan"), stages);
+        return String.join(" > ", stages);
+    }
+
+    private static void collectStages(Object node, List<String> stages) {
+        if (node instanceof Document document) {
+            if (document.get("stage") instanceof String stage) {
+                stages.add(document.get("indexName") instanceof String index ? stage + "(" + index + ")" : stage);
+            }
+            document.values().forEach(value -> collectStages(value, stages));
+        } else if (node instanceof List<?> list) {
+            list.forEach(value -> collectStages(value, stages));
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.springpracticereactivemongo.repositories;
 
 import com.example.springpracticereactivemongo.domain.Beer;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -26,4 +28,34 @@ public interface BeerRepository extends ReactiveMongoRepository<Beer, String> {
      * @return A Flux emitting all Beer entities matching the beer style.
      */
     Flux<Beer> findByBeerStyle(String beerStyle);
+
+    /**
+     * Finds the first Beer entities with the specified beer style in the given order.
+     * Sorting on price or quantityOnHand walks the matching {beerStyle, field} compound index,
+     * so the database stops after the first entities instead of sorting the whole style in memory.
+     *
+     * @param beerStyle The style of the beer to search for.
+     * @param sort      The order of the Beer entities.
+     * @param limit     The maximum number of Beer entities to return.
+     * @return A Flux emitting at most limit Beer entities matching the beer style, in order.
+     */
+    Flux<Beer> findByBeerStyle(String beerStyle, Sort sort, Limit limit);
+
+    /**
+     * Finds the first Beer entities of all styles in the given order.
+     * Sorting on price or quantityOnHand walks the index of that field.
+     *
+     * @param sort  The order of the Beer entities.
+     * @param limit The maximum number of Beer entities to return.
+     * @return A Flux emitting at most limit Beer entities, in order.
+     */
+    Flux<Beer> findAllBy(Sort sort, Limit limit);
+
+    /**
+     * Deletes all Beer entities with the specified beer style in a single deleteMany.
+     *
+     * @param beerStyle The style of the beers to delete.
+     * @return A Mono emitting the number of deleted Beer entities.
+     */
+    Mono<Long> deleteByBeerStyle(String beerStyle);
 }
\ No newline at end of file
@@ -0,0 +1,129 @@
+package com.example.springpracticereactivemongo.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * A JWT decoder that remembers the tokens it has already verified.
+ * <p>
+ * Clients send the same bearer token with every request until it expires, so verifying its RSA or EC
+ * signature each time is repeated work. Verified tokens are kept in a bounded cache keyed by the
+ * SHA-256 hash of the token, so the cache never holds the token itself and a token can only hit the
+ * entry of the exact same token. An entry expires when its token does, and at the latest after the
+ * maximum time to live, which bounds how long a token stays accepted after its signing key is rotated
+ * out. Tokens that fail verification are never cached.
+ * <p>
+ * The time spent verifying tokens is recorded by the {@value #VERIFICATION_METRIC} timer, tagged with
+ * the outcome; hit and miss counts are published as `cache.*` metrics of the `jwtVerifications` cache.
+ */
+public class CachingReactiveJwtDecoder implements ReactiveJwtDecoder {
+
+    static final String VERIFICATION_METRIC = "jwt.verification";
+
+    private final ReactiveJwtDecoder delegate;
+    private final Cache<String, Jwt> verified;
+    private final Timer succeeded;
+    private final Timer failed;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Constructor for CachingReactiveJwtDecoder.
+     *
+     * @param delegate      the decoder verifying the tokens that are not cached
+     * @param maximumSize   the maximum number of cached tokens
+     * @param maximumTtl    the maximum time a token stays cached, even if it expires later
+     * @param clock         the clock the expiry of the tokens is compared to
+     * @param meterRegistry the registry the cache and verification metrics are published to
+     */
+    public CachingReactiveJwtDecoder(
+            ReactiveJwtDecoder delegate,
+            long maximumSize,
+            Duration maximumTtl,
+            Clock clock,
+            MeterRegistry meterRegistry
+    ) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+        this.verified = CaffeineCacheMetrics.monitor(
+                meterRegistry,
+                Caffeine.newBuilder()
+                        .maximumSize(maximumSize)
+                        .expireAfter(untilExpiry(maximumTtl, clock))
+                        .recordStats()
+                        .build(),
+                "jwtVerifications"
+        );
+        this.succeeded = Timer.builder(VERIFICATION_METRIC)
+                .description("Time spent verifying JWTs that were not cached")
+                .tag("outcome", "success")
+                .register(meterRegistry);
+        this.failed = Timer.builder(VERIFICATION_METRIC)
+                .description("Time spent verifying JWTs that were not cached")
+                .tag("outcome", "failure")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Jwt> decode(String token) throws JwtException {
+        String key = hashOf(token);
+        Jwt cached = verified.getIfPresent(key);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return delegate.decode(token)
+                    .doOnNext(jwt -> {
+                        sample.stop(succeeded);
+                        verified.put(key, jwt);
+                    })
+                    .doOnError(_ -> sample.stop(failed));
+        });
+    }
+
+    /**
+     * Computes the cache key of a token.
+     *
+     * @param token the encoded token
+     * @return the Base64 encoded SHA-256 hash of the token
+     */
+    static String hashOf(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Expires every entry when its token expires, but no later than the maximum time to live.
+     */
+    private static Expiry<String, Jwt> untilExpiry(Duration maximumTtl, Clock clock) {
+        return Expiry.writing((_, jwt) -> {
+            Instant expiresAt = jwt.getExpiresAt();
+            if (expiresAt == null) {
+                return maximumTtl;
+            }
+            Duration untilExpiry = Duration.between(clock.instant(), expiresAt);
+            return untilExpiry.isNegative() ? Duration.ZERO : untilExpiry.compareTo(maximumTtl) < 0 ? untilExpiry : maximumTtl;
+        });
+    }
+}
@@ -1,9 +1,15 @@
 package com.example.springpracticereactivemongo.services;
 
+import com.example.springpracticereactivemongo.model.BatchItemResultDTO;
 import com.example.springpracticereactivemongo.model.BeerDTO;
+import com.example.springpracticereactivemongo.model.BeerQuery;
+import org.springframework.data.domain.Sort;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.Set;
+
 /**
  * Service interface for managing Beer entities.
  * Provides reactive methods for CRUD operations and additional business logic.
@@ -25,6 +31,24 @@ public interface BeerService {
      */
     Mono<BeerDTO> getBeerById(String id);
 
+    /**
+     * Retrieves many Beer entities by their unique identifiers in a single query.
+     *
+     * @param ids The unique identifiers of the Beer entities, without duplicates.
+     * @return A Flux emitting the found BeerDTO objects in the order of the identifiers;
+     *         identifiers without a Beer entity are skipped.
+     */
+    Flux<BeerDTO> getBeersByIds(List<String> ids);
+
+    /**
+     * Retrieves the selected fields of a Beer entity by its unique identifier.
+     *
+     * @param id     The unique identifier of the Beer entity.
+     * @param fields The BeerDTO fields to read, or empty for all fields.
+     * @return A Mono emitting the BeerDTO object with only the selected fields set, or empty if not found.
+     */
+    Mono<BeerDTO> getBeerById(String id, Set<String> fields);
+
     /**
      * Finds the first Beer entity with the specified beer name.
      *
@@ -41,6 +65,37 @@ public interface BeerService {
      */
     Flux<BeerDTO> findByBeerStyle(String beerStyle);
 
+    /**
+     * Finds the first Beer entities, optionally of one style, in the given order,
+     * e.g. the ten cheapest beers of a style.
+     *
+     * @param beerStyle The style of the beers to return, or null for all styles.
+     * @param sort      The order of the beers, on price or quantityOnHand.
+     * @param limit     The maximum number of beers to return.
+     * @return A Flux emitting at most limit BeerDTO objects, in order.
+     */
+    Flux<BeerDTO> findTopBeers(String beerStyle, Sort sort, int limit);
+
+    /**
+     * Finds the Beer entities matching a query.
+     * If the query has a limit, beers are ordered by identifier and pages are walked with a
+     * keyset on the identifier instead of skip/offset.
+     *
+     * @param beerQuery The criteria, page and field selection of the query.
+     * @return A Flux emitting the matching BeerDTO objects, with only the selected fields set.
+     */
+    Flux<BeerDTO> findBeers(BeerQuery beerQuery);
+
+    /**
+     * Streams the Beer entities matching a query straight off the database cursor.
+     * Downstream demand drives how many cursor batches are fetched, so the full catalog
+     * can be streamed without being held in memory.
+     *
+     * @param beerQuery The criteria, page and field selection of the query.
+     * @return A Flux emitting BeerDTO objects as they are read from the cursor.
+     */
+    Flux<BeerDTO> streamBeers(BeerQuery beerQuery);
+
     /**
      * Saves a new Beer entity using a reactive Mono wrapper.
      *
@@ -57,6 +112,15 @@ public interface BeerService {
      */
     Mono<BeerDTO> saveBeer(BeerDTO beerDTO);
 
+    /**
+     * Saves a batch of new Beer entities with a single unordered bulk insert.
+     * A failing item does not stop the rest of the batch from being stored.
+     *
+     * @param beerDTOs The BeerDTO objects to save.
+     * @return A Flux emitting one result per BeerDTO, indexed by its position in the list.
+     */
+    Flux<BatchItemResultDTO> saveBeers(List<BeerDTO> beerDTOs);
+
     /**
      * Updates an existing Beer entity.
      *
@@ -66,6 +130,16 @@ public interface BeerService {
      */
     Mono<BeerDTO> updateBeer(String id, BeerDTO beerDTO);
 
+    /**
+     * Updates an existing Beer entity if it still has the expected version.
+     *
+     * @param id              The unique identifier of the Beer entity to update.
+     * @param beerDTO         The BeerDTO object containing updated data.
+     * @param expectedVersion The version the Beer entity must have, or null to update unconditionally.
+     * @return A Mono emitting the updated BeerDTO object, or empty if not found or the version did not match.
+     */
+    Mono<BeerDTO> updateBeer(String id, BeerDTO beerDTO, Long expectedVersion);
+
     /**
      * Partially updates an existing Beer entity.
      *
@@ -75,11 +149,40 @@ public interface BeerService {
      */
     Mono<BeerDTO> patchBeer(String id, BeerDTO beerDTO);
 
+    /**
+     * Partially updates an existing Beer entity if it still has the expected version.
+     *
+     * @param id              The unique identifier of the Beer entity to patch.
+     * @param beerDTO         The BeerDTO object containing partial updates.
+     * @param expectedVersion The version the Beer entity must have, or null to patch unconditionally.
+     * @return A Mono emitting the patched BeerDTO object, or empty if not found or the version did not match.
+     */
+    Mono<BeerDTO> patchBeer(String id, BeerDTO beerDTO, Long expectedVersion);
+
+    /**
+     * Atomically adjusts the quantity on hand of a Beer entity.
+     * Stock is only taken out if enough is on hand, so the quantity never drops below zero.
+     *
+     * @param id    The unique identifier of the Beer entity.
+     * @param delta The change in quantity on hand, negative to take stock out.
+     * @return A Mono emitting the new quantity on hand, or empty if the Beer entity was not
+     * found or does not have enough stock on hand.
+     */
+    Mono<Integer> adjustInventory(String id, int delta);
+
     /**
      * Deletes a Beer entity by its unique identifier.
      *
      * @param id The unique identifier of the Beer entity to delete.
-     * @return A Mono emitting void upon successful deletion.
+     * @return A Mono emitting the number of deleted Beer entities, 0 if none was found.
+     */
+    Mono<Long> deleteBeerById(String id);
+
+    /**
+     * Deletes all Beer entities with the specified beer style.
+     *
+     * @param beerStyle The style of the beers to delete.
+     * @return A Mono emitting the number of deleted Beer entities.
      */
-    Mono<Void> deleteBeerById(String id);
+    Mono<Long> deleteBeersByStyle(String beerStyle);
 }
\ No newline at end of file
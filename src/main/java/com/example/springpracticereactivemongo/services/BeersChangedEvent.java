@@ -0,0 +1,20 @@
+package com.example.springpracticereactivemongo.services;
+
+/**
+ * Application event published after beers were written or deleted.
+ * Listeners use it to drop derived data, such as cached responses, that may no longer be current.
+ *
+ * @param beerStyle The style of the written beers, or null if beers of any style may have changed.
+ */
+public record BeersChangedEvent(String beerStyle) {
+
+    /**
+     * Checks whether data derived from beers of the given style may be affected by this change.
+     *
+     * @param style The style the data was derived from, or null for data derived from beers of all styles.
+     * @return true if the data may no longer be current
+     */
+    public boolean affects(String style) {
+        return beerStyle == null || style == null || beerStyle.equals(style);
+    }
+}
@@ -1,9 +1,13 @@
 package com.example.springpracticereactivemongo.services;
 
 import com.example.springpracticereactivemongo.model.CustomerDTO;
+import com.example.springpracticereactivemongo.model.CustomerQuery;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.Set;
+
 /**
  * Service interface for managing Customer entities.
  * Provides reactive methods for CRUD operations and additional business logic.
@@ -17,6 +21,26 @@ public interface CustomerService {
      */
     Flux<CustomerDTO> listCustomers();
 
+    /**
+     * Finds the customers matching a query.
+     * If the query has a limit, customers are ordered by identifier and pages are walked with a
+     * keyset on the identifier instead of skip/offset.
+     *
+     * @param customerQuery The page and field selection of the query.
+     * @return A Flux emitting the matching CustomerDTO objects, with only the selected fields set.
+     */
+    Flux<CustomerDTO> findCustomers(CustomerQuery customerQuery);
+
+    /**
+     * Streams the customers matching a query straight off the database cursor.
+     * Downstream demand drives how many cursor batches are fetched, so all customers
+     * can be streamed without being held in memory.
+     *
+     * @param customerQuery The page and field selection of the query.
+     * @return A Flux emitting CustomerDTO objects as they are read from the cursor.
+     */
+    Flux<CustomerDTO> streamCustomers(CustomerQuery customerQuery);
+
     /**
      * Retrieves a customer by its unique identifier.
      *
@@ -25,6 +49,24 @@ public interface CustomerService {
      */
     Mono<CustomerDTO> getCustomerById(String id);
 
+    /**
+     * Retrieves many customers by their unique identifiers in a single query.
+     *
+     * @param ids The unique identifiers of the customers, without duplicates.
+     * @return A Flux emitting the found CustomerDTO objects in the order of the identifiers;
+     *         identifiers without a customer are skipped.
+     */
+    Flux<CustomerDTO> getCustomersByIds(List<String> ids);
+
+    /**
+     * Retrieves the selected fields of a customer by its unique identifier.
+     *
+     * @param id     The unique identifier of the customer.
+     * @param fields The CustomerDTO fields to read, or empty for all fields.
+     * @return A Mono emitting the CustomerDTO object with only the selected fields set, or empty if not found.
+     */
+    Mono<CustomerDTO> getCustomerById(String id, Set<String> fields);
+
     /**
      * Creates a new customer.
      *
@@ -50,6 +92,16 @@ public interface CustomerService {
      */
     Mono<CustomerDTO> updateCustomer(String id, CustomerDTO customerDTO);
 
+    /**
+     * Updates an existing customer if it still has the expected version.
+     *
+     * @param id              The unique identifier of the customer to update.
+     * @param customerDTO     The CustomerDTO object containing updated data.
+     * @param expectedVersion The version the customer must have, or null to update unconditionally.
+     * @return A Mono emitting the updated CustomerDTO object, or empty if not found or the version did not match.
+     */
+    Mono<CustomerDTO> updateCustomer(String id, CustomerDTO customerDTO, Long expectedVersion);
+
     /**
      * Partially updates an existing customer.
      *
@@ -59,11 +111,21 @@ public interface CustomerService {
      */
     Mono<CustomerDTO> patchCustomer(String id, CustomerDTO customerDTO);
 
+    /**
+     * Partially updates an existing customer if it still has the expected version.
+     *
+     * @param id              The unique identifier of the customer to patch.
+     * @param customerDTO     The CustomerDTO object containing partial updates.
+     * @param expectedVersion The version the customer must have, or null to patch unconditionally.
+     * @return A Mono emitting the patched CustomerDTO object, or empty if not found or the version did not match.
+     */
+    Mono<CustomerDTO> patchCustomer(String id, CustomerDTO customerDTO, Long expectedVersion);
+
     /**
      * Deletes a customer by its unique identifier.
      *
      * @param id The unique identifier of the customer to delete.
-     * @return A Mono emitting void upon successful deletion.
+     * @return A Mono emitting the number of deleted customers, 0 if none was found.
      */
-    Mono<Void> deleteCustomerById(String id);
+    Mono<Long> deleteCustomerById(String id);
 }
\ No newline at end of file
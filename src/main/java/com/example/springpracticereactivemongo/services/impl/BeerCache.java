@@ -0,0 +1,193 @@
+package com.example.springpracticereactivemongo.services.impl;
+
+import com.example.springpracticereactivemongo.model.BeerDTO;
+import com.example.springpracticereactivemongo.services.BeersChangedEvent;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, in-process read-through cache of beers by identifier and by name.
+ * <p>
+ * Entries expire after a fixed time to live and the least valuable entries are evicted once
+ * the maximum size is reached. The caches hold futures rather than values, so a miss never
+ * blocks the calling thread: concurrent readers of the same key share one database read, and
+ * the value is completed by the database driver. Readers joining a pending load are counted as
+ * coalesced requests by {@link SingleFlight}. Beers that are not found are not cached.
+ * The name each cached beer is cached under is indexed by its identifier, so a write evicts the
+ * name entry of a beer without scanning the name cache, even if the write renamed it. An index entry is
+ * only dropped once its name is no longer cached, so a name loaded again before the removal of its previous
+ * entry was notified stays indexed.
+ * Hit, miss and eviction counts are published as `cache.*` metrics tagged with the cache name.
+ * <p>
+ * Every eviction also publishes a {@link BeersChangedEvent}, so caches of derived data, such as
+ * encoded list responses, are dropped together with the beers they were built from.
+ */
+@Component
+class BeerCache {
+
+    private final AsyncCache<String, BeerDTO> beersById;
+    private final AsyncCache<String, BeerDTO> beersByName;
+    private final Cache<String, String> namesById;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SingleFlight singleFlight;
+
+    /**
+     * Constructor for BeerCache.
+     *
+     * @param eventPublisher The publisher of the change events.
+     * @param singleFlight   The counter of coalesced requests.
+     * @param meterRegistry  The registry the cache metrics are published to.
+     * @param maximumSize    The maximum number of entries per cache.
+     * @param timeToLive     How long an entry is served after it was loaded.
+     */
+    @Autowired
+    BeerCache(
+            ApplicationEventPublisher eventPublisher,
+            SingleFlight singleFlight,
+            MeterRegistry meterRegistry,
+            @Value("${app.beer.cache.maximum-size:10000}") long maximumSize,
+            @Value("${app.beer.cache.time-to-live:5m}") Duration timeToLive
+    ) {
+        this(eventPublisher, singleFlight, meterRegistry, maximumSize, timeToLive, ForkJoinPool.commonPool());
+    }
+
+    BeerCache(
+            ApplicationEventPublisher eventPublisher,
+            SingleFlight singleFlight,
+            MeterRegistry meterRegistry,
+            long maximumSize,
+            Duration timeToLive,
+            Executor executor
+    ) {
+        this.eventPublisher = eventPublisher;
+        this.singleFlight = singleFlight;
+        this.namesById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+        this.beersById = CaffeineCacheMetrics.monitor(meterRegistry, newCache(maximumSize, timeToLive, executor)
+                .buildAsync(), "beersById");
+        this.beersByName = CaffeineCacheMetrics.monitor(meterRegistry, newCache(maximumSize, timeToLive, executor)
+                .removalListener(this::onNameRemoved)
+                .buildAsync(), "beersByName");
+    }
+
+    /**
+     * Drops the index entry of a beer whose name entry was removed, unless the name was loaded again since.
+     */
+    private void onNameRemoved(String beerName, BeerDTO beer, RemovalCause cause) {
+        if (beer != null) {
+            namesById.asMap().computeIfPresent(beer.id(), (_, indexedName) ->
+                    indexedName.equals(beerName) && beersByName.getIfPresent(beerName) == null ? null : indexedName);
+        }
+    }
+
+    private static Caffeine<Object, Object> newCache(long maximumSize, Duration timeToLive, Executor executor) {
+        return Caffeine.newBuilder()
+                .executor(executor)
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats();
+    }
+
+    /**
+     * Returns the cached beer with the given identifier, loading it on a miss.
+     *
+     * @param id     The unique identifier of the beer.
+     * @param loader Loads the beer from the database.
+     * @return A Mono emitting the BeerDTO object, or empty if not found.
+     */
+    Mono<BeerDTO> getById(String id, Supplier<Mono<BeerDTO>> loader) {
+        return get(beersById, "getBeerById", id, loader);
+    }
+
+    /**
+     * Returns the cached first beer with the given name, loading it on a miss.
+     *
+     * @param beerName The name of the beer.
+     * @param loader   Loads the beer from the database.
+     * @return A Mono emitting the BeerDTO object, or empty if not found.
+     */
+    Mono<BeerDTO> getByName(String beerName, Supplier<Mono<BeerDTO>> loader) {
+        return get(beersByName, "findFirstByBeerName", beerName, () -> loader.get()
+                .doOnNext(beer -> namesById.put(beer.id(), beerName)));
+    }
+
+    /**
+     * Reads a key through a cache. Cancelling the returned Mono does not cancel the shared load,
+     * which other readers of the same key may be waiting for.
+     */
+    private Mono<BeerDTO> get(
+            AsyncCache<String, BeerDTO> cache,
+            String operation,
+            String key,
+            Supplier<Mono<BeerDTO>> loader
+    ) {
+        return Mono.defer(() -> {
+            CompletableFuture<BeerDTO> pending = cache.getIfPresent(key);
+            if (pending != null && !pending.isDone()) {
+                singleFlight.recordCoalesced(operation);
+            }
+            return Mono.fromFuture(cache.get(key, (_, _) -> loader.get().toFuture()), true);
+        });
+    }
+
+    /**
+     * Evicts a beer after it was written without changing its style.
+     * The name is evicted too, since the written beer may now be the first beer with that name.
+     *
+     * @param beerDTO The beer as written to the database.
+     */
+    void evict(BeerDTO beerDTO) {
+        invalidate(beerDTO.id());
+        if (beerDTO.beerName() != null) {
+            beersByName.synchronous().invalidate(beerDTO.beerName());
+        }
+        eventPublisher.publishEvent(new BeersChangedEvent(beerDTO.beerStyle()));
+    }
+
+    /**
+     * Evicts a beer after it was deleted or moved to another style, including any name entry pointing at it.
+     *
+     * @param id        The unique identifier of the beer.
+     * @param beerStyle The style the beer had, or null if it is not known, in which case data derived
+     *                  from beers of any style is evicted.
+     */
+    void evict(String id, String beerStyle) {
+        invalidate(id);
+        eventPublisher.publishEvent(new BeersChangedEvent(beerStyle));
+    }
+
+    /**
+     * Evicts all beers, after a write to all beers of a style whose beers are not known individually.
+     *
+     * @param beerStyle The style of the written beers.
+     */
+    void evictAll(String beerStyle) {
+        beersById.synchronous().invalidateAll();
+        beersByName.synchronous().invalidateAll();
+        eventPublisher.publishEvent(new BeersChangedEvent(beerStyle));
+    }
+
+    private void invalidate(String id) {
+        beersById.synchronous().invalidate(id);
+        String beerName = namesById.getIfPresent(id);
+        if (beerName != null) {
+            beersByName.synchronous().invalidate(beerName);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.springpracticereactivemongo.services.impl;
+
+import com.example.springpracticereactivemongo.model.BeerFilter;
+import com.example.springpracticereactivemongo.model.BeerQuery;
+import org.bson.BsonRegularExpression;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles Beer list queries into MongoDB queries, caching one compiled plan per query shape.
+ * <p>
+ * The shape of a query is the set of criteria it uses, regardless of their values. The first query
+ * of a shape compiles it into the list of writers for its criteria; later queries of the same shape
+ * only run those writers with their values. Criteria are always written in the same order and with
+ * the same operators, e.g. `$in` for styles even if there is one, so every shape maps to exactly one
+ * query shape in the MongoDB plan cache. Every shape is served by one of the indexes declared on Beer.
+ */
+final class BeerQueryCompiler {
+
+    /**
+     * The criteria a Beer list query can use.
+     */
+    enum Criterion {
+        STYLES,
+        NAME_PREFIX,
+        MIN_PRICE,
+        MAX_PRICE,
+        MIN_QUANTITY,
+        MAX_QUANTITY,
+        AFTER_ID
+    }
+
+    private static final Pattern REGEX_METACHARACTERS = Pattern.compile("[\\\\^$.|?*+()\\[\\]{}]");
+
+    private static final Map<Set<Criterion>, List<BiConsumer<Document, BeerQuery>>> SHAPES = new ConcurrentHashMap<>();
+
+    private BeerQueryCompiler() {
+    }
+
+    /**
+     * Translates a BeerQuery into a MongoDB query.
+     * If the query has a limit, beers are ordered by identifier.
+     *
+     * @param beerQuery The criteria, page and field selection of the query.
+     * @return the MongoDB query
+     */
+    static Query compile(BeerQuery beerQuery) {
+        Document filter = new Document();
+        for (BiConsumer<Document, BeerQuery> writer : SHAPES.computeIfAbsent(shapeOf(beerQuery), BeerQueryCompiler::compileShape)) {
+            writer.accept(filter, beerQuery);
+        }
+
+        Query query = new BasicQuery(filter);
+        if (beerQuery.limit() != null) {
+            query.with(Sort.by(Sort.Direction.ASC, "id")).limit(beerQuery.limit());
+        }
+        return Projections.include(query, beerQuery.fields());
+    }
+
+    private static Set<Criterion> shapeOf(BeerQuery beerQuery) {
+        Set<Criterion> shape = EnumSet.noneOf(Criterion.class);
+        BeerFilter filter = beerQuery.filter();
+        if (filter != null) {
+            if (filter.beerStyles() != null && !filter.beerStyles().isEmpty()) {
+                shape.add(Criterion.STYLES);
+            }
+            if (filter.namePrefix() != null) {
+                shape.add(Criterion.NAME_PREFIX);
+            }
+            if (filter.minPrice() != null) {
+                shape.add(Criterion.MIN_PRICE);
+            }
+            if (filter.maxPrice() != null) {
+                shape.add(Criterion.MAX_PRICE);
+            }
+            if (filter.minQuantityOnHand() != null) {
+                shape.add(Criterion.MIN_QUANTITY);
+            }
+            if (filter.maxQuantityOnHand() != null) {
+                shape.add(Criterion.MAX_QUANTITY);
+            }
+        }
+        if (beerQuery.afterId() != null) {
+            shape.add(Criterion.AFTER_ID);
+        }
+        return shape;
+    }
+
+    private static List<BiConsumer<Document, BeerQuery>> compileShape(Set<Criterion> shape) {
+        List<BiConsumer<Document, BeerQuery>> writers = new ArrayList<>();
+        for (Criterion criterion : shape) {
+            writers.add(switch (criterion) {
+                case STYLES -> (filter, query) -> filter.append("beerStyle", new Document("$in", List.copyOf(query.filter().beerStyles())));
+                case NAME_PREFIX -> (filter, query) -> filter.append("beerName", prefixOf(query.filter().namePrefix()));
+                case MIN_PRICE -> (filter, query) -> operator(filter, "price", "$gte", new Decimal128(query.filter().minPrice()));
+                case MAX_PRICE -> (filter, query) -> operator(filter, "price", "$lte", new Decimal128(query.filter().maxPrice()));
+                case MIN_QUANTITY -> (filter, query) -> operator(filter, "quantityOnHand", "$gte", query.filter().minQuantityOnHand());
+                case MAX_QUANTITY -> (filter, query) -> operator(filter, "quantityOnHand", "$lte", query.filter().maxQuantityOnHand());
+                case AFTER_ID -> (filter, query) -> operator(filter, "_id", "$gt", idOf(query.afterId()));
+            });
+        }
+        return List.copyOf(writers);
+    }
+
+    private static void operator(Document filter, String field, String operator, Object value) {
+        ((Document) filter.computeIfAbsent(field, _ -> new Document())).append(operator, value);
+    }
+
+    /**
+     * Builds an anchored, case-sensitive regular expression matching a prefix, which MongoDB
+     * evaluates as a range scan on the index of the field.
+     */
+    private static BsonRegularExpression prefixOf(String prefix) {
+        return new BsonRegularExpression("^" + REGEX_METACHARACTERS.matcher(prefix).replaceAll(Matcher.quoteReplacement("\\") + "$0"));
+    }
+
+    /**
+     * Converts an identifier the way the mapping layer stores it.
+     */
+    private static Object idOf(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+}
@@ -2,13 +2,35 @@ package com.example.springpracticereactivemongo.services.impl;
 
 import com.example.springpracticereactivemongo.domain.Beer;
 import com.example.springpracticereactivemongo.mappers.BeerMapper;
+import com.example.springpracticereactivemongo.model.BatchItemResultDTO;
 import com.example.springpracticereactivemongo.model.BeerDTO;
+import com.example.springpracticereactivemongo.model.BeerQuery;
 import com.example.springpracticereactivemongo.repositories.BeerRepository;
 import com.example.springpracticereactivemongo.services.BeerService;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
 /**
  * Implementation of the BeerService interface.
  * Provides reactive methods for managing Beer entities, including CRUD operations and business logic.
@@ -16,25 +38,46 @@ import reactor.core.publisher.Mono;
 @Service
 public class BeerServiceImpl implements BeerService {
 
+    /**
+     * Number of documents fetched per cursor batch when streaming, which is also the
+     * amount of demand requested from the cursor at a time.
+     */
+    static final int STREAM_BATCH_SIZE = 256;
+
     private final BeerRepository beerRepository;
     private final BeerMapper beerMapper;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final BeerCache beerCache;
+    private final SingleFlight singleFlight;
 
     /**
      * Constructor for BeerServiceImpl.
      *
      * @param beerRepository The repository for Beer entities.
      * @param beerMapper     The mapper for converting between Beer and BeerDTO objects.
+     * @param mongoTemplate  The template used for queries the repository cannot express.
+     * @param beerCache      The read-through cache for single-beer lookups.
+     * @param singleFlight   The coalescer of concurrent identical bounded reads.
      */
     public BeerServiceImpl(
             BeerRepository beerRepository,
-            BeerMapper beerMapper
+            BeerMapper beerMapper,
+            ReactiveMongoTemplate mongoTemplate,
+            BeerCache beerCache,
+            SingleFlight singleFlight
     ) {
         this.beerRepository = beerRepository;
         this.beerMapper = beerMapper;
+        this.mongoTemplate = mongoTemplate;
+        this.beerCache = beerCache;
+        this.singleFlight = singleFlight;
     }
 
     /**
      * Retrieves all Beer entities.
+     * The read is unbounded, so it is streamed to its subscriber rather than shared, which would buffer
+     * the whole collection for late joiners and keep the query running after every subscriber cancelled.
+     * Concurrent identical list requests are coalesced where the list is bounded, by the response cache.
      *
      * @return A Flux emitting all BeerDTO objects.
      */
@@ -46,30 +89,71 @@ public class BeerServiceImpl implements BeerService {
 
     /**
      * Retrieves a Beer entity by its unique identifier.
+     * Reads through the beer cache, which is evicted by every write to the Beer entity.
      *
      * @param id The unique identifier of the Beer entity.
      * @return A Mono emitting the BeerDTO object, or empty if not found.
      */
     @Override
     public Mono<BeerDTO> getBeerById(String id) {
-        return beerRepository.findById(id)
+        return beerCache.getById(id, () -> beerRepository.findById(id)
+                .map(beerMapper::beerToBeerDTO));
+    }
+
+    /**
+     * Retrieves many Beer entities by their unique identifiers in a single query.
+     * All identifiers are resolved with one `$in` query on `_id`, which returns documents in
+     * index order, so the result is put back into the order of the identifiers.
+     *
+     * @param ids The unique identifiers of the Beer entities, without duplicates.
+     * @return A Flux emitting the found BeerDTO objects in the order of the identifiers;
+     *         identifiers without a Beer entity are skipped.
+     */
+    @Override
+    public Flux<BeerDTO> getBeersByIds(List<String> ids) {
+        return beerRepository.findAllById(ids)
+                .collectMap(Beer::id)
+                .flatMapIterable(found -> ids.stream()
+                        .map(found::get)
+                        .filter(Objects::nonNull)
+                        .toList())
+                .map(beerMapper::beerToBeerDTO);
+    }
+
+    /**
+     * Retrieves the selected fields of a Beer entity by its unique identifier.
+     * The field selection is pushed down to the database as a projection.
+     *
+     * @param id     The unique identifier of the Beer entity.
+     * @param fields The BeerDTO fields to read, or empty for all fields.
+     * @return A Mono emitting the BeerDTO object with only the selected fields set, or empty if not found.
+     */
+    @Override
+    public Mono<BeerDTO> getBeerById(String id, Set<String> fields) {
+        if (fields.isEmpty()) {
+            return getBeerById(id);
+        }
+
+        return mongoTemplate.findOne(Projections.include(query(where("id").is(id)), fields), Beer.class)
                 .map(beerMapper::beerToBeerDTO);
     }
 
     /**
      * Finds the first Beer entity with the specified beer name.
+     * Reads through the beer cache, which is evicted by every write to the Beer entity.
      *
      * @param beerName The name of the beer to search for.
      * @return A Mono emitting the BeerDTO object, or empty if not found.
      */
     @Override
     public Mono<BeerDTO> findFirstByBeerName(String beerName) {
-        return beerRepository.findFirstByBeerName(beerName)
-                .map(beerMapper::beerToBeerDTO);
+        return beerCache.getByName(beerName, () -> beerRepository.findFirstByBeerName(beerName)
+                .map(beerMapper::beerToBeerDTO));
     }
 
     /**
      * Finds all Beer entities with the specified beer style.
+     * Like {@link #findAll()}, the read is unbounded and therefore not shared.
      *
      * @param beerStyle The style of the beer to search for.
      * @return A Flux emitting all BeerDTO objects matching the beer style.
@@ -80,8 +164,57 @@ public class BeerServiceImpl implements BeerService {
                 .map(beerMapper::beerToBeerDTO);
     }
 
+    /**
+     * Finds the first Beer entities, optionally of one style, in the given order.
+     * The repository query walks an index in sort order and stops after limit entities,
+     * so no blocking in-memory sort runs. Concurrent identical calls share a single query.
+     *
+     * @param beerStyle The style of the beers to return, or null for all styles.
+     * @param sort      The order of the beers, on price or quantityOnHand.
+     * @param limit     The maximum number of beers to return.
+     * @return A Flux emitting at most limit BeerDTO objects, in order.
+     */
+    @Override
+    public Flux<BeerDTO> findTopBeers(String beerStyle, Sort sort, int limit) {
+        return singleFlight.flux("findTopBeers", beerStyle + ":" + sort + ":" + limit, () -> (beerStyle != null
+                        ? beerRepository.findByBeerStyle(beerStyle, sort, Limit.of(limit))
+                        : beerRepository.findAllBy(sort, Limit.of(limit)))
+                .map(beerMapper::beerToBeerDTO));
+    }
+
+    /**
+     * Finds the Beer entities matching a query.
+     * If the query has a limit, beers are ordered by identifier and the page starts strictly after
+     * afterId, so the query is an index range scan on _id no matter how deep into the collection
+     * the client is. Field selections are pushed down to the database as a projection.
+     *
+     * @param beerQuery The criteria, page and field selection of the query.
+     * @return A Flux emitting the matching BeerDTO objects, with only the selected fields set.
+     */
+    @Override
+    public Flux<BeerDTO> findBeers(BeerQuery beerQuery) {
+        return mongoTemplate.find(BeerQueryCompiler.compile(beerQuery), Beer.class)
+                .map(beerMapper::beerToBeerDTO);
+    }
+
+    /**
+     * Streams the Beer entities matching a query straight off the database cursor.
+     * The cursor batch size and the demand requested from it are aligned, so a slow consumer
+     * stops further getMore round trips instead of letting documents pile up in memory.
+     *
+     * @param beerQuery The criteria, page and field selection of the query.
+     * @return A Flux emitting BeerDTO objects as they are read from the cursor.
+     */
+    @Override
+    public Flux<BeerDTO> streamBeers(BeerQuery beerQuery) {
+        return mongoTemplate.find(BeerQueryCompiler.compile(beerQuery).cursorBatchSize(STREAM_BATCH_SIZE), Beer.class)
+                .limitRate(STREAM_BATCH_SIZE)
+                .map(beerMapper::beerToBeerDTO);
+    }
+
     /**
      * Saves a new Beer entity using a reactive Mono wrapper.
+     * The identifier and version of the given beer are ignored, the beer is always inserted.
      *
      * @param beerDTO A Mono containing the BeerDTO object to save.
      * @return A Mono emitting the saved BeerDTO object.
@@ -89,21 +222,98 @@ public class BeerServiceImpl implements BeerService {
     @Override
     public Mono<BeerDTO> saveBeer(Mono<BeerDTO> beerDTO) {
         return beerDTO
-                .map(beerMapper::beerDTOToBeer)
+                .map(beerMapper::beerDTOToNewBeer)
                 .flatMap(beerRepository::save)
-                .map(beerMapper::beerToBeerDTO);
+                .map(beerMapper::beerToBeerDTO)
+                .doOnNext(beerCache::evict);
     }
 
     /**
      * Saves a new Beer entity.
+     * The identifier and version of the given beer are ignored, the beer is always inserted.
      *
      * @param beerDTO The BeerDTO object to save.
      * @return A Mono emitting the saved BeerDTO object.
      */
     @Override
     public Mono<BeerDTO> saveBeer(BeerDTO beerDTO) {
-        return beerRepository.save(beerMapper.beerDTOToBeer(beerDTO))
-                .map(beerMapper::beerToBeerDTO);
+        return beerRepository.save(beerMapper.beerDTOToNewBeer(beerDTO))
+                .map(beerMapper::beerToBeerDTO)
+                .doOnNext(beerCache::evict);
+    }
+
+    /**
+     * Saves a batch of new Beer entities with a single unordered bulk insert.
+     * Identifiers are assigned before the insert, so stored items can be reported without
+     * reading them back, and write errors are mapped back to the items that caused them.
+     *
+     * @param beerDTOs The BeerDTO objects to save.
+     * @return A Flux emitting one result per BeerDTO, indexed by its position in the list.
+     */
+    @Override
+    public Flux<BatchItemResultDTO> saveBeers(List<BeerDTO> beerDTOs) {
+        List<Beer> beers = beerDTOs.stream()
+                .map(beerMapper::beerDTOToBeer)
+                .map(BeerServiceImpl::prepareForInsert)
+                .toList();
+
+        return mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Beer.class)
+                .insert(beers)
+                .execute()
+                .map(_ -> Map.<Integer, String>of())
+                .onErrorResume(
+                        e -> findBulkWriteErrors(e) != null,
+                        e -> Mono.just(
+                                findBulkWriteErrors(e).stream()
+                                        .collect(Collectors.toMap(BulkWriteError::getIndex, BulkWriteError::getMessage, (first, _) -> first))
+                        )
+                )
+                .doOnNext(_ -> beers.forEach(beer -> beerCache.evict(beerMapper.beerToBeerDTO(beer))))
+                .flatMapMany(errors -> Flux.range(0, beers.size())
+                        .map(index -> errors.containsKey(index)
+                                ? BatchItemResultDTO.rejected(index, errors.get(index))
+                                : BatchItemResultDTO.stored(index, beers.get(index).id())
+                        )
+                );
+    }
+
+    /**
+     * Prepares the given Beer for a bulk insert, which bypasses the repository's save logic.
+     * A missing identifier is freshly generated and the version is initialized, whatever version the client sent.
+     *
+     * @param beer The Beer entity about to be inserted.
+     * @return the Beer entity with a non-null identifier and its initial version
+     */
+    private static Beer prepareForInsert(Beer beer) {
+        return new Beer(
+                beer.id() != null ? beer.id() : new ObjectId().toHexString(),
+                beer.beerName(),
+                beer.beerStyle(),
+                beer.upc(),
+                beer.quantityOnHand(),
+                beer.price(),
+                beer.createdDate(),
+                beer.lastModifiedDate(),
+                0L
+        );
+    }
+
+    /**
+     * Extracts the per-item write errors from a failed bulk write.
+     *
+     * @param error The error signalled by the bulk write.
+     * @return the write errors, or null if the error is not a bulk write error
+     */
+    private static List<BulkWriteError> findBulkWriteErrors(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof BulkOperationException bulkOperationException) {
+                return bulkOperationException.getErrors();
+            }
+            if (cause instanceof MongoBulkWriteException mongoBulkWriteException) {
+                return mongoBulkWriteException.getWriteErrors();
+            }
+        }
+        return null;
     }
 
     /**
@@ -115,21 +325,30 @@ public class BeerServiceImpl implements BeerService {
      */
     @Override
     public Mono<BeerDTO> updateBeer(String id, BeerDTO beerDTO) {
-        return getBeerById(id)
-                .flatMap(found_beer ->
-                        beerRepository.save(
-                                new Beer(
-                                        found_beer.id(),
-                                        beerDTO.beerName(),
-                                        beerDTO.beerStyle(),
-                                        beerDTO.upc(),
-                                        beerDTO.quantityOnHand(),
-                                        beerDTO.price(),
-                                        found_beer.createdDate(),
-                                        found_beer.lastModifiedDate()
-                                )
-                        ))
-                .map(beerMapper::beerToBeerDTO);
+        return updateBeer(id, beerDTO, null);
+    }
+
+    /**
+     * Updates an existing Beer entity if it still has the expected version.
+     * The update is applied atomically in a single findAndModify round trip: fields present in
+     * beerDTO are set, absent ones are unset, the version is incremented, and the updated
+     * document is returned.
+     *
+     * @param id              The unique identifier of the Beer entity to update.
+     * @param beerDTO         The BeerDTO object containing updated data.
+     * @param expectedVersion The version the Beer entity must have, or null to update unconditionally.
+     * @return A Mono emitting the updated BeerDTO object, or empty if not found or the version did not match.
+     */
+    @Override
+    public Mono<BeerDTO> updateBeer(String id, BeerDTO beerDTO, Long expectedVersion) {
+        Update update = new Update();
+        setOrUnset(update, "beerName", beerDTO.beerName());
+        setOrUnset(update, "beerStyle", beerDTO.beerStyle());
+        setOrUnset(update, "upc", beerDTO.upc());
+        setOrUnset(update, "quantityOnHand", beerDTO.quantityOnHand());
+        setOrUnset(update, "price", beerDTO.price());
+
+        return findAndModify(id, expectedVersion, update);
     }
 
     /**
@@ -141,31 +360,169 @@ public class BeerServiceImpl implements BeerService {
      */
     @Override
     public Mono<BeerDTO> patchBeer(String id, BeerDTO beerDTO) {
-        return getBeerById(id)
-                .flatMap(found_beer ->
-                        beerRepository.save(new Beer(
-                                        found_beer.id(),
-                                        beerDTO.beerName() != null ? beerDTO.beerName() : found_beer.beerName(),
-                                        beerDTO.beerStyle() != null ? beerDTO.beerStyle() : found_beer.beerStyle(),
-                                        beerDTO.upc() != null ? beerDTO.upc() : found_beer.upc(),
-                                        beerDTO.quantityOnHand() != null ? beerDTO.quantityOnHand() : found_beer.quantityOnHand(),
-                                        beerDTO.price() != null ? beerDTO.price() : found_beer.price(),
-                                        found_beer.createdDate(),
-                                        found_beer.lastModifiedDate()
-                                )
-                        ))
-                .map(beerMapper::beerToBeerDTO);
+        return patchBeer(id, beerDTO, null);
+    }
+
+    /**
+     * Partially updates an existing Beer entity if it still has the expected version.
+     * Only the non-null fields of beerDTO are set, atomically in a single findAndModify round trip,
+     * so concurrent patches of different fields do not overwrite each other.
+     *
+     * @param id              The unique identifier of the Beer entity to patch.
+     * @param beerDTO         The BeerDTO object containing partial updates.
+     * @param expectedVersion The version the Beer entity must have, or null to patch unconditionally.
+     * @return A Mono emitting the patched BeerDTO object, or empty if not found or the version did not match.
+     */
+    @Override
+    public Mono<BeerDTO> patchBeer(String id, BeerDTO beerDTO, Long expectedVersion) {
+        Update update = new Update();
+        setIfPresent(update, "beerName", beerDTO.beerName());
+        setIfPresent(update, "beerStyle", beerDTO.beerStyle());
+        setIfPresent(update, "upc", beerDTO.upc());
+        setIfPresent(update, "quantityOnHand", beerDTO.quantityOnHand());
+        setIfPresent(update, "price", beerDTO.price());
+
+        if (update.getUpdateObject().isEmpty()) {
+            return getBeerById(id)
+                    .filter(found -> expectedVersion == null || expectedVersion.equals(found.version()));
+        }
+        return findAndModify(id, expectedVersion, update);
+    }
+
+    /**
+     * Applies the update to the Beer entity with the given identifier and returns the updated document.
+     * The version is incremented with the update; if an expected version is given, the update only
+     * applies while the Beer entity still has it.
+     *
+     * @param id              The unique identifier of the Beer entity to update.
+     * @param expectedVersion The version the Beer entity must have, or null to update unconditionally.
+     * @param update          The update to apply.
+     * @return A Mono emitting the updated BeerDTO object, or empty if not found or the version did not match.
+     */
+    private Mono<BeerDTO> findAndModify(String id, Long expectedVersion, Update update) {
+        Query query = query(where("id").is(id));
+        if (expectedVersion != null) {
+            query.addCriteria(where("version").is(expectedVersion));
+        }
+
+        return mongoTemplate.findAndModify(
+                        query,
+                        update.inc("version", 1),
+                        FindAndModifyOptions.options().returnNew(true),
+                        Beer.class
+                )
+                .map(beerMapper::beerToBeerDTO)
+                .doOnNext(beerDTO -> {
+                    if (update.modifies("beerStyle")) {
+                        // the beer may have moved out of another style, which the returned document no longer has
+                        beerCache.evict(beerDTO.id(), null);
+                    }
+                    beerCache.evict(beerDTO);
+                });
+    }
+
+    /**
+     * Sets the field if the value is non-null, otherwise unsets it.
+     *
+     * @param update The update to add the field to.
+     * @param key    The name of the field.
+     * @param value  The new value of the field.
+     */
+    private static void setOrUnset(Update update, String key, Object value) {
+        if (value != null) {
+            update.set(key, value);
+        } else {
+            update.unset(key);
+        }
+    }
+
+    /**
+     * Sets the field if the value is non-null, otherwise leaves it untouched.
+     *
+     * @param update The update to add the field to.
+     * @param key    The name of the field.
+     * @param value  The new value of the field.
+     */
+    private static void setIfPresent(Update update, String key, Object value) {
+        if (value != null) {
+            update.set(key, value);
+        }
+    }
+
+    /**
+     * Atomically adjusts the quantity on hand of a Beer entity and increments its version.
+     * The change is a server-side $inc; when stock is taken out, the filter also requires
+     * quantityOnHand to cover it, so there is no read and no lost update under concurrent orders.
+     * A quantity that is missing or null counts as zero: stock cannot be taken out of it, and stock
+     * received is $set instead, since $inc fails on null. If a concurrent receipt set it first, the
+     * $inc is tried again. Only the new quantity and the style, which scopes cache eviction, are
+     * returned from the database.
+     *
+     * @param id    The unique identifier of the Beer entity.
+     * @param delta The change in quantity on hand, negative to take stock out.
+     * @return A Mono emitting the new quantity on hand, or empty if the Beer entity was not
+     * found or does not have enough stock on hand.
+     */
+    @Override
+    public Mono<Integer> adjustInventory(String id, int delta) {
+        Query counted = query(where("id").is(id));
+        counted.addCriteria(delta < 0 ? where("quantityOnHand").gte(-delta) : where("quantityOnHand").ne(null));
+        Mono<Beer> increment = modifyStock(counted, new Update().inc("quantityOnHand", delta).inc("version", 1));
+        if (delta < 0) {
+            return increment.map(Beer::quantityOnHand);
+        }
+
+        Query uncounted = query(where("id").is(id).and("quantityOnHand").is(null));
+        return increment
+                .switchIfEmpty(Mono.defer(() -> modifyStock(uncounted, new Update().set("quantityOnHand", delta).inc("version", 1))))
+                .switchIfEmpty(Mono.defer(() -> increment))
+                .map(Beer::quantityOnHand);
+    }
+
+    /**
+     * Applies a stock movement to the Beer entity matched by the query and evicts it.
+     *
+     * @param query  The query matching the Beer entity, if the movement applies.
+     * @param update The stock movement.
+     * @return A Mono emitting the new quantity on hand and style of the Beer entity, or empty if it was not matched.
+     */
+    private Mono<Beer> modifyStock(Query query, Update update) {
+        query.fields().include("quantityOnHand").include("beerStyle");
+
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Beer.class)
+                .doOnNext(beer -> beerCache.evict(beerMapper.beerToBeerDTO(beer)));
     }
 
     /**
      * Deletes a Beer entity by its unique identifier.
+     * The delete is a single findAndRemove round trip that only returns the style of the deleted
+     * entity, so callers do not need to load the document first and only cached data derived from
+     * beers of that style is evicted.
      *
      * @param id The unique identifier of the Beer entity to delete.
-     * @return A Mono emitting void upon successful deletion.
+     * @return A Mono emitting the number of deleted Beer entities, 0 if none was found.
+     */
+    @Override
+    public Mono<Long> deleteBeerById(String id) {
+        Query query = query(where("id").is(id));
+        query.fields().include("beerStyle");
+
+        return mongoTemplate.findAndRemove(query, Beer.class)
+                .doOnNext(beer -> beerCache.evict(id, beer.beerStyle()))
+                .map(_ -> 1L)
+                .defaultIfEmpty(0L);
+    }
+
+    /**
+     * Deletes all Beer entities with the specified beer style in a single deleteMany.
+     *
+     * @param beerStyle The style of the beers to delete.
+     * @return A Mono emitting the number of deleted Beer entities.
      */
     @Override
-    public Mono<Void> deleteBeerById(String id) {
-        return beerRepository.deleteById(id);
+    public Mono<Long> deleteBeersByStyle(String beerStyle) {
+        return beerRepository.deleteByBeerStyle(beerStyle)
+                .doOnNext(_ -> beerCache.evictAll(beerStyle));
     }
 
 }
\ No newline at end of file
@@ -3,12 +3,26 @@ package com.example.springpracticereactivemongo.services.impl;
 import com.example.springpracticereactivemongo.domain.Customer;
 import com.example.springpracticereactivemongo.mappers.CustomerMapper;
 import com.example.springpracticereactivemongo.model.CustomerDTO;
+import com.example.springpracticereactivemongo.model.CustomerQuery;
 import com.example.springpracticereactivemongo.repositories.CustomerRepository;
 import com.example.springpracticereactivemongo.services.CustomerService;
+import com.mongodb.client.result.DeleteResult;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
 /**
  * Implementation of the CustomerService interface.
  * Provides reactive methods for managing Customer entities, including CRUD operations and business logic.
@@ -16,18 +30,31 @@ import reactor.core.publisher.Mono;
 @Service
 public class CustomerServiceImpl implements CustomerService {
 
+    /**
+     * Number of documents fetched per cursor batch when streaming, which is also the
+     * amount of demand requested from the cursor at a time.
+     */
+    static final int STREAM_BATCH_SIZE = 256;
+
     private final CustomerRepository customerRepository;
     private final CustomerMapper customerMapper;
+    private final ReactiveMongoTemplate mongoTemplate;
 
     /**
      * Constructor for CustomerServiceImpl.
      *
      * @param customerRepository The repository for Customer entities.
      * @param customerMapper     The mapper for converting between Customer and CustomerDTO objects.
+     * @param mongoTemplate      The template used for queries the repository cannot express.
      */
-    public CustomerServiceImpl(CustomerRepository customerRepository, CustomerMapper customerMapper) {
+    public CustomerServiceImpl(
+            CustomerRepository customerRepository,
+            CustomerMapper customerMapper,
+            ReactiveMongoTemplate mongoTemplate
+    ) {
         this.customerRepository = customerRepository;
         this.customerMapper = customerMapper;
+        this.mongoTemplate = mongoTemplate;
     }
 
     /**
@@ -41,6 +68,55 @@ public class CustomerServiceImpl implements CustomerService {
                 .map(customerMapper::customerToCustomerDTO);
     }
 
+    /**
+     * Finds the customers matching a query.
+     * If the query has a limit, customers are ordered by identifier and the page starts strictly after
+     * afterId, so the query is an index range scan on _id no matter how deep into the collection
+     * the client is. Field selections are pushed down to the database as a projection.
+     *
+     * @param customerQuery The page and field selection of the query.
+     * @return A Flux emitting the matching CustomerDTO objects, with only the selected fields set.
+     */
+    @Override
+    public Flux<CustomerDTO> findCustomers(CustomerQuery customerQuery) {
+        return mongoTemplate.find(toQuery(customerQuery), Customer.class)
+                .map(customerMapper::customerToCustomerDTO);
+    }
+
+    /**
+     * Streams the customers matching a query straight off the database cursor.
+     * The cursor batch size and the demand requested from it are aligned, so a slow consumer
+     * stops further getMore round trips instead of letting documents pile up in memory.
+     *
+     * @param customerQuery The page and field selection of the query.
+     * @return A Flux emitting CustomerDTO objects as they are read from the cursor.
+     */
+    @Override
+    public Flux<CustomerDTO> streamCustomers(CustomerQuery customerQuery) {
+        return mongoTemplate.find(toQuery(customerQuery).cursorBatchSize(STREAM_BATCH_SIZE), Customer.class)
+                .limitRate(STREAM_BATCH_SIZE)
+                .map(customerMapper::customerToCustomerDTO);
+    }
+
+    /**
+     * Translates a CustomerQuery into a MongoDB query.
+     *
+     * @param customerQuery The page and field selection of the query.
+     * @return the MongoDB query
+     */
+    private static Query toQuery(CustomerQuery customerQuery) {
+        Query query = new Query();
+
+        if (customerQuery.afterId() != null) {
+            query.addCriteria(where("id").gt(customerQuery.afterId()));
+        }
+        if (customerQuery.limit() != null) {
+            query.with(Sort.by(Sort.Direction.ASC, "id")).limit(customerQuery.limit());
+        }
+
+        return Projections.include(query, customerQuery.fields());
+    }
+
     /**
      * Retrieves a customer by its unique identifier.
      *
@@ -53,27 +129,67 @@ public class CustomerServiceImpl implements CustomerService {
                 .map(customerMapper::customerToCustomerDTO);
     }
 
+    /**
+     * Retrieves many customers by their unique identifiers in a single query.
+     * All identifiers are resolved with one `$in` query on `_id`, which returns documents in
+     * index order, so the result is put back into the order of the identifiers.
+     *
+     * @param ids The unique identifiers of the customers, without duplicates.
+     * @return A Flux emitting the found CustomerDTO objects in the order of the identifiers;
+     *         identifiers without a customer are skipped.
+     */
+    @Override
+    public Flux<CustomerDTO> getCustomersByIds(List<String> ids) {
+        return customerRepository.findAllById(ids)
+                .collectMap(Customer::id)
+                .flatMapIterable(found -> ids.stream()
+                        .map(found::get)
+                        .filter(Objects::nonNull)
+                        .toList())
+                .map(customerMapper::customerToCustomerDTO);
+    }
+
+    /**
+     * Retrieves the selected fields of a customer by its unique identifier.
+     * The field selection is pushed down to the database as a projection.
+     *
+     * @param id     The unique identifier of the customer.
+     * @param fields The CustomerDTO fields to read, or empty for all fields.
+     * @return A Mono emitting the CustomerDTO object with only the selected fields set, or empty if not found.
+     */
+    @Override
+    public Mono<CustomerDTO> getCustomerById(String id, Set<String> fields) {
+        if (fields.isEmpty()) {
+            return getCustomerById(id);
+        }
+
+        return mongoTemplate.findOne(Projections.include(query(where("id").is(id)), fields), Customer.class)
+                .map(customerMapper::customerToCustomerDTO);
+    }
+
     /**
      * Creates a new customer.
+     * The identifier and version of the given customer are ignored, the customer is always inserted.
      *
      * @param customerDTO The CustomerDTO object to create.
      * @return A Mono emitting the created CustomerDTO object.
      */
     @Override
     public Mono<CustomerDTO> createCustomer(CustomerDTO customerDTO) {
-        return customerRepository.save(customerMapper.customerDTOToCustomer(customerDTO))
+        return customerRepository.save(customerMapper.customerDTOToNewCustomer(customerDTO))
                 .map(customerMapper::customerToCustomerDTO);
     }
 
     /**
      * Creates a new customer using a reactive Mono wrapper.
+     * The identifier and version of the given customer are ignored, the customer is always inserted.
      *
      * @param customerDTO A Mono containing the CustomerDTO object to create.
      * @return A Mono emitting the created CustomerDTO object.
      */
     @Override
     public Mono<CustomerDTO> createCustomer(Mono<CustomerDTO> customerDTO) {
-        return customerDTO.map(customerMapper::customerDTOToCustomer)
+        return customerDTO.map(customerMapper::customerDTOToNewCustomer)
                 .flatMap(customerRepository::save)
                 .map(customerMapper::customerToCustomerDTO);
     }
@@ -87,18 +203,29 @@ public class CustomerServiceImpl implements CustomerService {
      */
     @Override
     public Mono<CustomerDTO> updateCustomer(String id, CustomerDTO customerDTO) {
-        return getCustomerById(id)
-                .flatMap(found_customer ->
-                        customerRepository.save(
-                                new Customer(
-                                        found_customer.id(),
-                                        customerDTO.customerName(),
-                                        found_customer.createdDate(),
-                                        found_customer.lastModifiedDate()
-                                )
-                        )
-                )
-                .map(customerMapper::customerToCustomerDTO);
+        return updateCustomer(id, customerDTO, null);
+    }
+
+    /**
+     * Updates an existing customer if it still has the expected version.
+     * The update is applied atomically in a single findAndModify round trip, the version is
+     * incremented, and the updated document is returned.
+     *
+     * @param id              The unique identifier of the customer to update.
+     * @param customerDTO     The CustomerDTO object containing updated data.
+     * @param expectedVersion The version the customer must have, or null to update unconditionally.
+     * @return A Mono emitting the updated CustomerDTO object, or empty if not found or the version did not match.
+     */
+    @Override
+    public Mono<CustomerDTO> updateCustomer(String id, CustomerDTO customerDTO, Long expectedVersion) {
+        Update update = new Update();
+        if (customerDTO.customerName() != null) {
+            update.set("customerName", customerDTO.customerName());
+        } else {
+            update.unset("customerName");
+        }
+
+        return findAndModify(id, expectedVersion, update);
     }
 
     /**
@@ -110,28 +237,64 @@ public class CustomerServiceImpl implements CustomerService {
      */
     @Override
     public Mono<CustomerDTO> patchCustomer(String id, CustomerDTO customerDTO) {
-        return getCustomerById(id)
-                .flatMap(found_customer ->
-                        customerRepository.save(
-                                new Customer(
-                                        found_customer.id(),
-                                        customerDTO.customerName() != null ? customerDTO.customerName() : found_customer.customerName(),
-                                        found_customer.createdDate(),
-                                        found_customer.lastModifiedDate()
-                                )
-                        )
+        return patchCustomer(id, customerDTO, null);
+    }
+
+    /**
+     * Partially updates an existing customer if it still has the expected version.
+     * Only the non-null fields of customerDTO are set, atomically in a single findAndModify round trip.
+     *
+     * @param id              The unique identifier of the customer to patch.
+     * @param customerDTO     The CustomerDTO object containing partial updates.
+     * @param expectedVersion The version the customer must have, or null to patch unconditionally.
+     * @return A Mono emitting the patched CustomerDTO object, or empty if not found or the version did not match.
+     */
+    @Override
+    public Mono<CustomerDTO> patchCustomer(String id, CustomerDTO customerDTO, Long expectedVersion) {
+        if (customerDTO.customerName() == null) {
+            return getCustomerById(id)
+                    .filter(found -> expectedVersion == null || expectedVersion.equals(found.version()));
+        }
+
+        return findAndModify(id, expectedVersion, new Update().set("customerName", customerDTO.customerName()));
+    }
+
+    /**
+     * Applies the update to the customer with the given identifier and returns the updated document.
+     * The version is incremented with the update; if an expected version is given, the update only
+     * applies while the customer still has it.
+     *
+     * @param id              The unique identifier of the customer to update.
+     * @param expectedVersion The version the customer must have, or null to update unconditionally.
+     * @param update          The update to apply.
+     * @return A Mono emitting the updated CustomerDTO object, or empty if not found or the version did not match.
+     */
+    private Mono<CustomerDTO> findAndModify(String id, Long expectedVersion, Update update) {
+        Query query = query(where("id").is(id));
+        if (expectedVersion != null) {
+            query.addCriteria(where("version").is(expectedVersion));
+        }
+
+        return mongoTemplate.findAndModify(
+                        query,
+                        update.inc("version", 1),
+                        FindAndModifyOptions.options().returnNew(true),
+                        Customer.class
                 )
                 .map(customerMapper::customerToCustomerDTO);
     }
 
     /**
      * Deletes a customer by its unique identifier.
+     * The delete is a single round trip; its DeleteResult tells whether the customer existed,
+     * so callers do not need to load the document first.
      *
      * @param id The unique identifier of the customer to delete.
-     * @return A Mono emitting void upon successful deletion.
+     * @return A Mono emitting the number of deleted customers, 0 if none was found.
      */
     @Override
-    public Mono<Void> deleteCustomerById(String id) {
-        return customerRepository.deleteById(id);
+    public Mono<Long> deleteCustomerById(String id) {
+        return mongoTemplate.remove(query(where("id").is(id)), Customer.class)
+                .map(DeleteResult::getDeletedCount);
     }
 }
\ No newline at end of file
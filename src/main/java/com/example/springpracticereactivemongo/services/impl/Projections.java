@@ -0,0 +1,36 @@
+package com.example.springpracticereactivemongo.services.impl;
+
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Set;
+
+/**
+ * Helper for pushing a field selection down to the database as a projection.
+ * Unselected fields are never read from disk or sent over the wire from the database.
+ */
+final class Projections {
+
+    private Projections() {
+    }
+
+    /**
+     * Restricts the query to the given fields.
+     * The identifier is excluded unless it is selected, so that the query can be covered by an
+     * index holding all selected fields and never has to fetch the documents themselves.
+     *
+     * @param query  The query to restrict.
+     * @param fields The fields to read, or null or empty for all fields.
+     * @return the same query, for chaining
+     */
+    static Query include(Query query, Set<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return query;
+        }
+
+        fields.forEach(query.fields()::include);
+        if (!fields.contains("id")) {
+            query.fields().exclude("id");
+        }
+        return query;
+    }
+}
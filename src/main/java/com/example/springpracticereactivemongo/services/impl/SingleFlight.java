@@ -0,0 +1,89 @@
+package com.example.springpracticereactivemongo.services.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical reads into a single database query.
+ * <p>
+ * The first subscriber for a key starts the query; every subscriber arriving while it is in
+ * flight joins it and receives the same results, replayed from the start. The key is released
+ * as soon as the query terminates, so unlike a cache no result outlives the query that produced it.
+ * Joined requests are counted by the {@value #COALESCED_METRIC} counter, tagged with the operation.
+ * <p>
+ * A shared query runs to completion even if all of its subscribers cancel, so it is only meant
+ * for bounded reads.
+ */
+@Component
+class SingleFlight {
+
+    static final String COALESCED_METRIC = "beer.requests.coalesced";
+
+    private final Map<String, Flux<?>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Counter> coalescedCounters = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Constructor for SingleFlight.
+     *
+     * @param meterRegistry The registry the coalesced request counters are published to.
+     */
+    SingleFlight(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Runs a query, or joins the identical query already in flight.
+     *
+     * @param operation The name of the read operation, used in the key and as metric tag.
+     * @param key       The arguments of the read operation.
+     * @param query     Starts the query.
+     * @param <T>       The element type.
+     * @return A Flux emitting all results of the shared query.
+     */
+    @SuppressWarnings("unchecked")
+    <T> Flux<T> flux(String operation, String key, Supplier<Flux<T>> query) {
+        String flightKey = operation + ":" + key;
+
+        return Flux.defer(() -> {
+            AtomicBoolean started = new AtomicBoolean();
+            Flux<?> shared = inFlight.computeIfAbsent(flightKey, _ -> {
+                started.set(true);
+                return share(flightKey, query);
+            });
+            if (!started.get()) {
+                recordCoalesced(operation);
+            }
+            return (Flux<T>) shared;
+        });
+    }
+
+    /**
+     * Counts a request that joined a read already in flight elsewhere, such as a pending cache load.
+     *
+     * @param operation The name of the read operation.
+     */
+    void recordCoalesced(String operation) {
+        coalescedCounters.computeIfAbsent(operation, op -> Counter.builder(COALESCED_METRIC)
+                        .description("Reads served by joining an identical read already in flight")
+                        .tag("operation", op)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    private <T> Flux<T> share(String flightKey, Supplier<Flux<T>> query) {
+        AtomicReference<Flux<T>> self = new AtomicReference<>();
+        self.set(Flux.defer(query)
+                .doFinally(_ -> inFlight.remove(flightKey, self.get()))
+                .cache());
+        return self.get();
+    }
+}
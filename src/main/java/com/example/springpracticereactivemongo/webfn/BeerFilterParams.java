@@ -0,0 +1,86 @@
+package com.example.springpracticereactivemongo.webfn;
+
+import com.example.springpracticereactivemongo.model.BeerFilter;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.server.ServerWebInputException;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Helper for the filter query parameters of the beer list endpoints.
+ * <p>
+ * - `beerStyle`: one or more styles, comma-separated or repeated.
+ * - `namePrefix`: the case-sensitive prefix of the beer name.
+ * - `minPrice`, `maxPrice`: an inclusive price range.
+ * - `minQuantityOnHand`, `maxQuantityOnHand`: an inclusive stock range.
+ * <p>
+ * All filters are optional and combined with a logical AND.
+ */
+final class BeerFilterParams {
+
+	public static final String BEER_STYLE_PARAM = "beerStyle";
+	public static final String NAME_PREFIX_PARAM = "namePrefix";
+	public static final String MIN_PRICE_PARAM = "minPrice";
+	public static final String MAX_PRICE_PARAM = "maxPrice";
+	public static final String MIN_QUANTITY_PARAM = "minQuantityOnHand";
+	public static final String MAX_QUANTITY_PARAM = "maxQuantityOnHand";
+
+	private BeerFilterParams() {
+	}
+
+	/**
+	 * Reads the filter from the query parameters.
+	 *
+	 * @param request the incoming HTTP request
+	 * @return the filter, {@link BeerFilter#NONE} if no filter parameter is present
+	 * @throws ServerWebInputException if a bound is not a number or a range is empty
+	 */
+	static BeerFilter parse(ServerRequest request) {
+		BeerFilter filter = new BeerFilter(
+			styles(request),
+			request.queryParam(NAME_PREFIX_PARAM).filter(prefix -> !prefix.isEmpty()).orElse(null),
+			number(request, MIN_PRICE_PARAM, BigDecimal::new),
+			number(request, MAX_PRICE_PARAM, BigDecimal::new),
+			number(request, MIN_QUANTITY_PARAM, Integer::valueOf),
+			number(request, MAX_QUANTITY_PARAM, Integer::valueOf)
+		);
+
+		if (filter.minPrice() != null && filter.maxPrice() != null && filter.minPrice().compareTo(filter.maxPrice()) > 0) {
+			throw new ServerWebInputException(MIN_PRICE_PARAM + " must not be greater than " + MAX_PRICE_PARAM);
+		}
+		if (filter.minQuantityOnHand() != null && filter.maxQuantityOnHand() != null
+			    && filter.minQuantityOnHand() > filter.maxQuantityOnHand()) {
+			throw new ServerWebInputException(MIN_QUANTITY_PARAM + " must not be greater than " + MAX_QUANTITY_PARAM);
+		}
+		return filter.isEmpty() ? BeerFilter.NONE : filter;
+	}
+
+	private static Set<String> styles(ServerRequest request) {
+		Set<String> styles = new LinkedHashSet<>();
+		for (String value : request.queryParams().getOrDefault(BEER_STYLE_PARAM, List.of())) {
+			for (String style : value.split(",")) {
+				if (!style.isBlank()) {
+					styles.add(style.trim());
+				}
+			}
+		}
+		return styles.isEmpty() ? null : Collections.unmodifiableSet(styles);
+	}
+
+	private static <T> T number(ServerRequest request, String name, Function<String, T> parser) {
+		String value = request.queryParam(name).orElse(null);
+		if (value == null || value.isBlank()) {
+			return null;
+		}
+		try {
+			return parser.apply(value.trim());
+		} catch (NumberFormatException e) {
+			throw new ServerWebInputException(name + " must be a number");
+		}
+	}
+}
@@ -1,8 +1,16 @@
 package com.example.springpracticereactivemongo.webfn;
 
+import com.example.springpracticereactivemongo.model.BatchItemResultDTO;
 import com.example.springpracticereactivemongo.model.BeerDTO;
+import com.example.springpracticereactivemongo.model.BeerFilter;
+import com.example.springpracticereactivemongo.model.BeerQuery;
+import com.example.springpracticereactivemongo.model.InventoryAdjustmentDTO;
+import com.example.springpracticereactivemongo.model.InventoryDTO;
 import com.example.springpracticereactivemongo.services.BeerService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.BeanPropertyBindingResult;
 import org.springframework.validation.Errors;
@@ -14,16 +22,35 @@ import org.springframework.web.server.ServerWebInputException;
 import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Component
 public class BeerHandler {
 	
 	private final BeerService beerService;
 	private final Validator validator;
+	private final ResponseCache responseCache;
+	private final int batchSize;
+	private final int maximumListItems;
 	
-	public BeerHandler(BeerService beerService, Validator validator) {
+	public BeerHandler(
+		BeerService beerService,
+		Validator validator,
+		ResponseCache responseCache,
+		@Value("${app.beer.batch-size:500}") int batchSize,
+		@Value("${app.beer.response-cache.maximum-items:1000}") int maximumListItems
+	) {
 		this.beerService = beerService;
 		this.validator = validator;
+		this.responseCache = responseCache;
+		this.batchSize = batchSize;
+		this.maximumListItems = maximumListItems;
 	}
 	
 	/**
@@ -37,14 +64,25 @@ public class BeerHandler {
 	 * @throws ServerWebInputException if validation errors are found
 	 */
 	private void validate(BeerDTO beerDTO) {
-		Errors errors = new BeanPropertyBindingResult(beerDTO, "beerDTO");
-		validator.validate(beerDTO, errors);
+		Errors errors = validationErrors(beerDTO);
 		
 		if (errors.hasErrors()) {
 			throw new ServerWebInputException(errors.toString());
 		}
 	}
 	
+	/**
+	 * Collects the validation errors of the given BeerDTO object without throwing.
+	 *
+	 * @param beerDTO the BeerDTO object to validate
+	 * @return the validation errors, empty if the object is valid
+	 */
+	private Errors validationErrors(BeerDTO beerDTO) {
+		Errors errors = new BeanPropertyBindingResult(beerDTO, "beerDTO");
+		validator.validate(beerDTO, errors);
+		return errors;
+	}
+	
 	
 	/**
 	 * Handles an HTTP GET request to retrieve a list of beers.
@@ -54,19 +92,236 @@ public class BeerHandler {
 	 * `beerService.findByBeerStyle` method. Otherwise, it retrieves all beers using
 	 * the `beerService.findAll` method. The response is returned as an HTTP 200 status
 	 * with the list of beers in the response body.
+	 * <p>
+	 * If a "limit" or "cursor" query parameter is provided, only a single page is returned,
+	 * see {@link #listBeersPage(ServerRequest, BeerFilter, Set)}. If an "ids" query parameter is provided,
+	 * only the beers with those IDs are returned, see {@link #listBeersByIds(ServerRequest, Set)}.
+	 * If a "sort" query parameter is provided, only the first "limit" beers in that order are
+	 * returned, see {@link #listTopBeers(ServerRequest, BeerFilter, Set)}.
+	 * If a "fields" query parameter is provided, only the listed fields are read from the database
+	 * and returned for each beer.
+	 * <p>
+	 * Beers can be filtered by several styles, a name prefix, a price range and a stock range,
+	 * see {@link BeerFilterParams}. Filters are applied by the database, backed by the indexes
+	 * declared on the `Beer` document.
+	 * <p>
+	 * The list carries an `ETag` computed from the IDs and versions of its beers; if it
+	 * matches `If-None-Match`, an HTTP 304 response is returned without a body. Clients that
+	 * want the list streamed rather than collected should use the NDJSON route instead.
+	 * <p>
+	 * The full list, optionally filtered by a single style, is the most frequent request; its
+	 * encoded JSON is served from the {@link ResponseCache} until a beer of that style is written.
+	 * A list longer than the cache accepts is streamed instead, without an `ETag`, so it is never
+	 * buffered in memory as a whole. Lists with selected fields or other filters are not cached,
+	 * but are bounded the same way.
 	 *
 	 * @param request the incoming HTTP request
 	 * @return a `Mono<ServerResponse>` containing:
 	 *         - HTTP 200 response with the list of beers in the response body.
-	 *         - The response body is populated with a reactive stream of `BeerDTO` objects.
+	 *         - HTTP 304 response if the list has not changed since the client fetched it.
+	 *         - HTTP 400 response if a selected field does not exist or a filter is invalid.
 	 */
 	public Mono<ServerResponse> listBeers(ServerRequest request) {
-		Flux<BeerDTO> flux = request.queryParam("beerStyle")
-			.map(beerService::findByBeerStyle)
-			.orElseGet(beerService::findAll);
+		Set<String> fields = FieldSelection.parse(request, BeerDTO.class);
 		
-		return ServerResponse.ok()
-			       .body(flux, BeerDTO.class);
+		if (IdSelection.isRequested(request)) {
+			return listBeersByIds(request, fields);
+		}
+		
+		BeerFilter filter = BeerFilterParams.parse(request);
+		
+		if (BeerSortParams.isRequested(request)) {
+			return listTopBeers(request, filter, fields);
+		}
+		
+		if (PageCursor.isPaged(request)) {
+			return listBeersPage(request, filter, fields);
+		}
+		
+		String beerStyle = filter.singleStyle();
+		if (!fields.isEmpty() || (!filter.isEmpty() && beerStyle == null)) {
+			return BoundedLists.collectOrStream(
+				beerService.findBeers(new BeerQuery(filter, null, null, fields)),
+				maximumListItems,
+				beers -> okOrNotModified(request, ServerResponse.ok(), beers, fields),
+				// too long to be buffered, streamed without an ETag
+				beers -> fields.isEmpty()
+					         ? ServerResponse.ok().body(beers, BeerDTO.class)
+					         : ServerResponse.ok().body(
+						         beers.map(beerDTO -> FieldSelection.project(beerDTO, fields)),
+						         new ParameterizedTypeReference<Map<String, Object>>() {
+						         }
+					         )
+			);
+		}
+		
+		Flux<BeerDTO> flux = beerStyle != null
+			                     ? beerService.findByBeerStyle(beerStyle)
+			                     : beerService.findAll();
+		
+		return responseCache.get(
+				beerStyle,
+				MediaType.APPLICATION_JSON,
+				flux,
+				beers -> EntityTags.ofList(beers, BeerDTO::id, BeerDTO::version)
+			)
+			       .flatMap(cached -> EntityTags.okOrNotModified(
+				       request,
+				       ServerResponse.ok().contentType(MediaType.APPLICATION_JSON),
+				       cached.eTag(),
+				       cached.body()
+			       ))
+			       // too long to be buffered, streamed without an ETag
+			       .switchIfEmpty(Mono.defer(() -> ServerResponse.ok().body(flux, BeerDTO.class)));
+	}
+	
+	/**
+	 * Handles an HTTP GET request to retrieve a single page of beers.
+	 *
+	 * The page holds at most "limit" beers, ordered by ID, starting after the position
+	 * encoded in the opaque "cursor" query parameter. When the page is full, the cursor
+	 * for the next page is returned in the `X-Next-Cursor` response header; a missing
+	 * header means the client has reached the end of the collection. Like the full list,
+	 * the page carries an `ETag` and honors `If-None-Match`.
+	 *
+	 * @param request the incoming HTTP request
+	 * @param filter  the criteria of the beers of the page
+	 * @param fields  the selected fields, or empty for all fields
+	 * @return a `Mono<ServerResponse>` containing:
+	 *         - HTTP 200 response with the page of beers in the response body.
+	 *         - HTTP 304 response if the page has not changed since the client fetched it.
+	 *         - HTTP 400 response if the limit or cursor is invalid.
+	 */
+	private Mono<ServerResponse> listBeersPage(ServerRequest request, BeerFilter filter, Set<String> fields) {
+		int limit = PageCursor.limit(request);
+		BeerQuery beerQuery = new BeerQuery(
+			filter,
+			PageCursor.afterId(request),
+			limit,
+			// the next cursor is derived from the ID of the last beer
+			FieldSelection.with(fields, "id")
+		);
+		
+		return beerService.findBeers(beerQuery)
+			       .collectList()
+			       .flatMap(page -> okOrNotModified(
+				       request,
+				       PageCursor.withNextCursor(ServerResponse.ok(), page, limit, BeerDTO::id),
+				       page,
+				       fields
+			       ));
+	}
+	
+	/**
+	 * Handles an HTTP GET request to retrieve the first beers in a given order.
+	 *
+	 * The "sort" query parameter names the field, see {@link BeerSortParams}, and "limit" the
+	 * number of beers, e.g. `?beerStyle=IPA&sort=price&limit=10` for the ten cheapest IPAs. The
+	 * beers are read through `beerService.findTopBeers`, whose query walks the index of the sort
+	 * field, optionally within one style, and stops after the limit. Other filters and cursors
+	 * cannot be combined with a sort, since the database could no longer use the index order.
+	 * Like the full list, the response carries an `ETag` and honors `If-None-Match`.
+	 *
+	 * @param request the incoming HTTP request
+	 * @param filter  the criteria of the beers, at most a single style
+	 * @param fields  the selected fields, or empty for all fields
+	 * @return a `Mono<ServerResponse>` containing:
+	 *         - HTTP 200 response with the sorted beers in the response body.
+	 *         - HTTP 304 response if the beers have not changed since the client fetched them.
+	 *         - HTTP 400 response if the sort, limit or filter is invalid.
+	 */
+	private Mono<ServerResponse> listTopBeers(ServerRequest request, BeerFilter filter, Set<String> fields) {
+		if (request.queryParam(PageCursor.CURSOR_PARAM).isPresent()) {
+			throw new ServerWebInputException("sort cannot be combined with cursor");
+		}
+		if (!filter.isEmpty() && filter.singleStyle() == null) {
+			throw new ServerWebInputException("sort can only be combined with a single beerStyle");
+		}
+		
+		return beerService.findTopBeers(filter.singleStyle(), BeerSortParams.parse(request), PageCursor.limit(request))
+			       .collectList()
+			       .flatMap(beers -> okOrNotModified(request, ServerResponse.ok(), beers, fields));
+	}
+	
+	/**
+	 * Handles an HTTP GET request to retrieve many beers by their IDs.
+	 *
+	 * The comma-separated "ids" query parameter lists the beers to return, which are fetched
+	 * with a single `$in` query through the `beerService.getBeersByIds` method instead of one
+	 * request per beer. The beers are returned in the order of the IDs; IDs without a beer
+	 * are listed in the `X-Missing-Ids` response header. Like the full list, the response
+	 * carries an `ETag` and honors `If-None-Match`.
+	 *
+	 * @param request the incoming HTTP request
+	 * @param fields  the selected fields, or empty for all fields
+	 * @return a `Mono<ServerResponse>` containing:
+	 *         - HTTP 200 response with the found beers in the response body.
+	 *         - HTTP 304 response if the beers have not changed since the client fetched them.
+	 *         - HTTP 400 response if no IDs or too many IDs are requested.
+	 */
+	private Mono<ServerResponse> listBeersByIds(ServerRequest request, Set<String> fields) {
+		List<String> ids = IdSelection.parse(request);
+		
+		return beerService.getBeersByIds(ids)
+			       .collectList()
+			       .flatMap(beers -> okOrNotModified(
+				       request,
+				       IdSelection.withMissingIds(ServerResponse.ok(), ids, beers, BeerDTO::id),
+				       beers,
+				       fields
+			       ));
+	}
+	
+	/**
+	 * Writes a list of beers, reduced to the selected fields, with its `ETag`.
+	 *
+	 * @param request the incoming HTTP request
+	 * @param ok      the builder of the 200 response, possibly with headers already set
+	 * @param beers   the beers of the list
+	 * @param fields  the selected fields, or empty for all fields
+	 * @return a `Mono<ServerResponse>` with either HTTP 200 or HTTP 304
+	 */
+	private static Mono<ServerResponse> okOrNotModified(
+		ServerRequest request,
+		ServerResponse.BodyBuilder ok,
+		List<BeerDTO> beers,
+		Set<String> fields
+	) {
+		if (fields.isEmpty()) {
+			return EntityTags.okOrNotModified(request, ok, EntityTags.ofList(beers, BeerDTO::id, BeerDTO::version), beers);
+		}
+		
+		List<Map<String, Object>> projected = FieldSelection.projectAll(beers, fields);
+		return EntityTags.okOrNotModified(request, ok, EntityTags.ofContent(projected), projected);
+	}
+	
+	/**
+	 * Handles an HTTP GET request to stream beers as newline-delimited JSON.
+	 *
+	 * This method is routed for clients that accept `application/x-ndjson`. Each beer is
+	 * written and flushed as soon as it is read from the database cursor, instead of
+	 * being wrapped in a single JSON array, and the client's read rate propagates back to
+	 * the cursor. The stream accepts the same filters as the list, see {@link BeerFilterParams},
+	 * and the optional "fields" query parameter reduces each beer to the listed fields.
+	 *
+	 * @param request the incoming HTTP request
+	 * @return a `Mono<ServerResponse>` containing:
+	 *         - HTTP 200 response streaming one `BeerDTO` JSON document per line.
+	 *         - HTTP 400 response if a selected field does not exist or a filter is invalid.
+	 */
+	public Mono<ServerResponse> streamBeers(ServerRequest request) {
+		Set<String> fields = FieldSelection.parse(request, BeerDTO.class);
+		Flux<BeerDTO> beers = beerService.streamBeers(
+			new BeerQuery(BeerFilterParams.parse(request), null, null, fields)
+		);
+		ServerResponse.BodyBuilder ok = ServerResponse.ok()
+			                                .contentType(MediaType.APPLICATION_NDJSON);
+		
+		if (fields.isEmpty()) {
+			return ok.body(beers, BeerDTO.class);
+		}
+		return ok.body(beers.map(beerDTO -> FieldSelection.project(beerDTO, fields)), new ParameterizedTypeReference<>() {
+		});
 	}
 	
 	/**
@@ -74,19 +329,32 @@ public class BeerHandler {
 	 *
 	 * This method processes a GET request where the beer ID is provided as a path variable.
 	 * It uses the `beerService.getBeerById` method to fetch the beer details. If the beer
-	 * is found, it returns an HTTP 200 response with the beer details in the response body.
+	 * is found, it returns an HTTP 200 response with the beer details in the response body
+	 * and the beer version as its `ETag`, to be sent back in `If-Match` on updates.
+	 * If the `ETag` matches `If-None-Match`, an HTTP 304 response is returned without a body.
 	 * If the beer is not found, it throws a `ResponseStatusException` with an HTTP 404 status.
+	 * If a "fields" query parameter is provided, only the listed fields are read and returned,
+	 * and the `ETag` is computed from their content.
 	 *
 	 * @param request the incoming HTTP request containing the beer ID as a path variable
 	 * @return a `Mono<ServerResponse>` containing:
 	 *         - HTTP 200 response with the beer details in the response body if the beer is found.
+	 *         - HTTP 304 response if the beer has not changed since the client fetched it.
+	 *         - HTTP 400 response if a selected field does not exist.
 	 *         - HTTP 404 response if the beer is not found.
 	 */
 	public Mono<ServerResponse> getBeerById(ServerRequest request) {
-		return ServerResponse.ok()
-			       .body(beerService.getBeerById(request.pathVariable("id"))
-				             .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND))),
-				       BeerDTO.class);
+		Set<String> fields = FieldSelection.parse(request, BeerDTO.class);
+		
+		return beerService.getBeerById(request.pathVariable("id"), fields)
+			       .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+			       .flatMap(beerDTO -> {
+				       if (fields.isEmpty()) {
+					       return EntityTags.okOrNotModified(request, ServerResponse.ok(), EntityTags.of(beerDTO.version()), beerDTO);
+				       }
+				       Map<String, Object> projected = FieldSelection.project(beerDTO, fields);
+				       return EntityTags.okOrNotModified(request, ServerResponse.ok(), EntityTags.ofContent(projected), projected);
+			       });
 	}
 	
 	/**
@@ -107,28 +375,102 @@ public class BeerHandler {
 			       );
 	}
 	
+	/**
+	 * Handles an HTTP POST request to create many beers at once.
+	 *
+	 * The request body is either a JSON array or newline-delimited JSON of `BeerDTO` objects
+	 * and is decoded as a stream, so the whole payload is never held in memory. Each beer is
+	 * validated on its own; valid beers are grouped into batches of `app.beer.batch-size`
+	 * and written with one unordered bulk insert per batch through `beerService.saveBeers`.
+	 *
+	 * @param request the incoming HTTP request containing the beers in the request body
+	 * @return a `Mono<ServerResponse>` containing:
+	 *         - HTTP 200 response streaming one `BatchItemResultDTO` per beer in the request,
+	 *           carrying either the ID of the stored beer or the reason it was rejected.
+	 */
+	public Mono<ServerResponse> createBeersInBatch(ServerRequest request) {
+		Flux<BatchItemResultDTO> results = request.bodyToFlux(BeerDTO.class)
+			                                   .index()
+			                                   .buffer(batchSize)
+			                                   .concatMap(this::saveBatch);
+		
+		return ServerResponse.ok()
+			       .body(results, BatchItemResultDTO.class);
+	}
+	
+	/**
+	 * Validates one batch of beers and saves the valid ones.
+	 *
+	 * @param batch the beers of the batch, paired with their position in the request body
+	 * @return a `Flux` emitting one `BatchItemResultDTO` per beer of the batch,
+	 *         indexed by its position in the request body
+	 */
+	private Flux<BatchItemResultDTO> saveBatch(List<Tuple2<Long, BeerDTO>> batch) {
+		List<BatchItemResultDTO> rejected = new ArrayList<>();
+		List<Long> acceptedIndexes = new ArrayList<>();
+		List<BeerDTO> accepted = new ArrayList<>();
+		
+		for (Tuple2<Long, BeerDTO> item : batch) {
+			Errors errors = validationErrors(item.getT2());
+			if (errors.hasErrors()) {
+				rejected.add(BatchItemResultDTO.rejected(item.getT1(), describe(errors)));
+			} else {
+				acceptedIndexes.add(item.getT1());
+				accepted.add(item.getT2());
+			}
+		}
+		
+		if (accepted.isEmpty()) {
+			return Flux.fromIterable(rejected);
+		}
+		
+		return Flux.fromIterable(rejected)
+			       .concatWith(
+				       beerService.saveBeers(accepted)
+					       .map(result -> result.withIndex(acceptedIndexes.get((int) result.index())))
+			       );
+	}
+	
+	/**
+	 * Renders validation errors as a short, client-facing message.
+	 *
+	 * @param errors the validation errors
+	 * @return the field errors as `field: message` pairs separated by semicolons
+	 */
+	private static String describe(Errors errors) {
+		return errors.getFieldErrors().stream()
+			       .map(fieldError -> fieldError.getField() + ": " + fieldError.getDefaultMessage())
+			       .collect(Collectors.joining("; "));
+	}
+	
 	/**
 	 * Handles an HTTP PUT request to update an existing beer by its ID.
 	 *
 	 * This method processes a PUT request where the beer ID is provided as a path variable,
 	 * and the updated beer details are included in the request body. It uses the
 	 * `beerService.updateBeer` method to update the beer details. If the beer is not found,
-	 * it throws a `ResponseStatusException` with an HTTP 404 status.
+	 * it throws a `ResponseStatusException` with an HTTP 404 status. If an `If-Match` header
+	 * is sent, the update only applies while the beer still has that version, otherwise an
+	 * HTTP 412 status is returned.
 	 *
 	 * @param request the incoming HTTP request containing the beer ID as a path variable
 	 *                and the updated beer details in the request body
 	 * @return a `Mono<ServerResponse>` containing:
-	 *         - HTTP 204 response indicating that the beer was successfully updated.
+	 *         - HTTP 204 response with the new `ETag` indicating that the beer was successfully updated.
 	 *         - HTTP 404 response if the beer is not found.
+	 *         - HTTP 412 response if the beer version does not match `If-Match`.
 	 */
 	public Mono<ServerResponse> updateBeerById(ServerRequest request) {
+		String id = request.pathVariable("id");
+		Long expectedVersion = EntityTags.ifMatchVersion(request);
+		
 		return request.bodyToMono(BeerDTO.class)
 			       .doOnNext(this::validate)
 			       .flatMap(
-				       beerDTO -> beerService.updateBeer(request.pathVariable("id"), beerDTO)
+				       beerDTO -> beerService.updateBeer(id, beerDTO, expectedVersion)
 			       )
-			       .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-			       .flatMap(_ -> ServerResponse.noContent().build());
+			       .switchIfEmpty(EntityTags.notFoundOrPreconditionFailed(expectedVersion, () -> beerService.getBeerById(id)))
+			       .flatMap(updated -> ServerResponse.noContent().headers(EntityTags.eTag(updated.version())).build());
 	}
 	
 	/**
@@ -138,30 +480,81 @@ public class BeerHandler {
 	 * and the partial beer details are included in the request body. It uses the
 	 * `beerService.patchBeer` method to apply the partial updates to the beer details.
 	 * If the beer is not found, it throws a `ResponseStatusException` with an HTTP 404 status.
+	 * If an `If-Match` header is sent, the patch only applies while the beer still has that
+	 * version, otherwise an HTTP 412 status is returned.
 	 *
 	 * @param request the incoming HTTP request containing the beer ID as a path variable
 	 *                and the partial beer details in the request body
 	 * @return a `Mono<ServerResponse>` containing:
-	 *         - HTTP 204 response indicating that the beer was successfully updated.
+	 *         - HTTP 204 response with the new `ETag` indicating that the beer was successfully updated.
 	 *         - HTTP 404 response if the beer is not found.
+	 *         - HTTP 412 response if the beer version does not match `If-Match`.
 	 */
 	public Mono<ServerResponse> patchBeerById(ServerRequest request) {
+		String id = request.pathVariable("id");
+		Long expectedVersion = EntityTags.ifMatchVersion(request);
+		
 		return request.bodyToMono(BeerDTO.class)
 			       .doOnNext(this::validate)
 			       .flatMap(
-				       beerDTO -> beerService.patchBeer(request.pathVariable("id"), beerDTO)
+				       beerDTO -> beerService.patchBeer(id, beerDTO, expectedVersion)
 			       )
-			       .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-			       .flatMap(_ -> ServerResponse.noContent().build());
+			       .switchIfEmpty(EntityTags.notFoundOrPreconditionFailed(expectedVersion, () -> beerService.getBeerById(id)))
+			       .flatMap(patched -> ServerResponse.noContent().headers(EntityTags.eTag(patched.version())).build());
+	}
+	
+	/**
+	 * Handles an HTTP POST request to adjust the stock of a beer by its ID.
+	 *
+	 * This method processes a POST request where the beer ID is provided as a path variable
+	 * and the stock movement is provided as an `InventoryAdjustmentDTO` in the request body.
+	 * The movement is applied atomically by the `beerService.adjustInventory` method. If it
+	 * was not applied, the beer is looked up to tell a missing beer from insufficient stock.
+	 *
+	 * @param request the incoming HTTP request containing the beer ID as a path variable
+	 *                and the stock movement in the request body
+	 * @return a `Mono<ServerResponse>` containing:
+	 *         - HTTP 200 response with the new stock level as an `InventoryDTO` in the response body.
+	 *         - HTTP 400 response if the delta is missing.
+	 *         - HTTP 404 response if the beer is not found.
+	 *         - HTTP 409 response if the beer does not have enough stock on hand.
+	 */
+	public Mono<ServerResponse> adjustInventory(ServerRequest request) {
+		String id = request.pathVariable("id");
+		
+		return request.bodyToMono(InventoryAdjustmentDTO.class)
+			       .switchIfEmpty(Mono.error(new ServerWebInputException("Request body is required")))
+			       .doOnNext(adjustment -> {
+				       if (adjustment.delta() == null) {
+					       throw new ServerWebInputException("delta is required");
+				       }
+			       })
+			       .flatMap(adjustment -> beerService.adjustInventory(id, adjustment.delta())
+				                              .switchIfEmpty(Mono.defer(() -> rejectAdjustment(id))))
+			       .flatMap(quantityOnHand -> ServerResponse.ok().bodyValue(new InventoryDTO(id, quantityOnHand)));
+	}
+	
+	/**
+	 * Explains why a stock movement was not applied.
+	 *
+	 * @param id the ID of the beer
+	 * @return a `Mono` failing with HTTP 409 if the beer exists, or HTTP 404 otherwise
+	 */
+	private Mono<Integer> rejectAdjustment(String id) {
+		return beerService.getBeerById(id)
+			       .hasElement()
+			       .flatMap(exists -> Mono.error(new ResponseStatusException(
+				       exists ? HttpStatus.CONFLICT : HttpStatus.NOT_FOUND,
+				       exists ? "Insufficient stock on hand" : null
+			       )));
 	}
 	
 	/**
 	 * Handles an HTTP DELETE request to delete a beer by its ID.
 	 *
 	 * This method processes a DELETE request where the beer ID is provided as a path variable.
-	 * It first checks if the beer exists using the `beerService.getBeerById` method. If the beer
-	 * is not found, it throws a `ResponseStatusException` with an HTTP 404 status. If the beer
-	 * exists, it proceeds to delete the beer using the `beerService.deleteBeerById` method.
+	 * It deletes the beer using the `beerService.deleteBeerById` method in a single round trip.
+	 * If no beer was deleted, it throws a `ResponseStatusException` with an HTTP 404 status.
 	 *
 	 * @param request the incoming HTTP request containing the beer ID as a path variable
 	 * @return a `Mono<ServerResponse>` containing:
@@ -169,9 +562,28 @@ public class BeerHandler {
 	 *         - HTTP 404 response if the beer is not found.
 	 */
 	public Mono<ServerResponse> deleteBeerById(ServerRequest request) {
-		return beerService.getBeerById(request.pathVariable("id"))
+		return beerService.deleteBeerById(request.pathVariable("id"))
+			       .filter(deleted -> deleted > 0)
 			       .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-			       .flatMap(beerDTO -> beerService.deleteBeerById(beerDTO.id()))
-			       .then(ServerResponse.noContent().build());
+			       .flatMap(_ -> ServerResponse.noContent().build());
+	}
+	
+	/**
+	 * Handles an HTTP DELETE request to delete all beers of a style.
+	 *
+	 * This method processes a DELETE request on the beer collection, intended for cleanup jobs.
+	 * The required "beerStyle" query parameter selects the beers to delete, which are removed
+	 * with a single `deleteMany` through the `beerService.deleteBeersByStyle` method.
+	 *
+	 * @param request the incoming HTTP request containing the "beerStyle" query parameter
+	 * @return a `Mono<ServerResponse>` containing:
+	 *         - HTTP 200 response with the number of deleted beers as `deletedCount` in the response body.
+	 *         - HTTP 400 response if the "beerStyle" query parameter is missing.
+	 */
+	public Mono<ServerResponse> deleteBeersByStyle(ServerRequest request) {
+		return Mono.justOrEmpty(request.queryParam("beerStyle"))
+			       .switchIfEmpty(Mono.error(new ServerWebInputException("beerStyle is required")))
+			       .flatMap(beerService::deleteBeersByStyle)
+			       .flatMap(deleted -> ServerResponse.ok().bodyValue(Map.of("deletedCount", deleted)));
 	}
 }
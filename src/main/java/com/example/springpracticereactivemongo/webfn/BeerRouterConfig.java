@@ -14,10 +14,14 @@ public class BeerRouterConfig {
 	
 	public static final String BEER_PATH = "/api/v3/beer";
 	public static final String BEER_ID_PATH = BEER_PATH + "/{id}";
+	public static final String BEER_BATCH_PATH = BEER_PATH + "/batch";
+	public static final String BEER_INVENTORY_PATH = BEER_ID_PATH + "/inventory";
 	private final BeerHandler beerHandler;
+	private final RouteMetrics routeMetrics;
 	
-	public BeerRouterConfig(BeerHandler beerHandler) {
+	public BeerRouterConfig(BeerHandler beerHandler, RouteMetrics routeMetrics) {
 		this.beerHandler = beerHandler;
+		this.routeMetrics = routeMetrics;
 	}
 	
 	/**
@@ -25,23 +29,34 @@ public class BeerRouterConfig {
 	 *
 	 * @return a `RouterFunction<ServerResponse>` that defines the routes for handling
 	 *         beer-related operations. The routes include:
-	 *         - A GET request to `BEER_PATH` to retrieve a list of beers, handled by `listBeers`.
+	 *         - A GET request to `BEER_PATH` to retrieve a list of beers, or the beers listed in `ids`, handled by `listBeers`.
+	 *         - A GET request to `BEER_PATH` accepting `application/x-ndjson` to stream beers, handled by `streamBeers`.
 	 *         - A GET request to `BEER_ID_PATH` to retrieve a specific beer by its ID, handled by `getBeerById`.
 	 *         - A POST request to `BEER_PATH` to create a new beer, handled by `createNewBeer`.
+	 *         - A POST request to `BEER_BATCH_PATH` to create many beers at once, handled by `createBeersInBatch`.
+	 *           It also accepts `application/x-ndjson`.
 	 *         - A PUT request to `BEER_ID_PATH` to update an existing beer by its ID, handled by `updateBeerById`.
 	 *         - A PATCH request to `BEER_ID_PATH` to partially update an existing beer by its ID, handled by `patchBeerById`.
+	 *         - A POST request to `BEER_INVENTORY_PATH` to adjust the stock of a beer, handled by `adjustInventory`.
 	 *         - A DELETE request to `BEER_ID_PATH` to delete a beer by its ID, handled by `deleteBeerById`.
-	 *         All routes accept requests with `application/json` media type.
+	 *         - A DELETE request to `BEER_PATH` to delete all beers of a style, handled by `deleteBeersByStyle`.
+	 *         All other routes accept requests with `application/json` media type.
+	 *         Every route is instrumented by {@link RouteMetrics}, tagged with its route template.
 	 */
 	@Bean
 	public RouterFunction<ServerResponse> beerRoutes() {
 		return route()
 			       .GET(BEER_PATH, accept(MediaType.APPLICATION_JSON), beerHandler::listBeers)
+			       .GET(BEER_PATH, accept(MediaType.APPLICATION_NDJSON), beerHandler::streamBeers)
 			       .GET(BEER_ID_PATH, accept(MediaType.APPLICATION_JSON), beerHandler::getBeerById)
 			       .POST(BEER_PATH, accept(MediaType.APPLICATION_JSON), beerHandler::createNewBeer)
+			       .POST(BEER_BATCH_PATH, accept(MediaType.APPLICATION_JSON, MediaType.APPLICATION_NDJSON), beerHandler::createBeersInBatch)
 			       .PUT(BEER_ID_PATH, accept(MediaType.APPLICATION_JSON), beerHandler::updateBeerById)
 			       .PATCH(BEER_ID_PATH, accept(MediaType.APPLICATION_JSON), beerHandler::patchBeerById)
+			       .POST(BEER_INVENTORY_PATH, accept(MediaType.APPLICATION_JSON), beerHandler::adjustInventory)
 			       .DELETE(BEER_ID_PATH, accept(MediaType.APPLICATION_JSON), beerHandler::deleteBeerById)
+			       .DELETE(BEER_PATH, accept(MediaType.APPLICATION_JSON), beerHandler::deleteBeersByStyle)
+			       .filter(routeMetrics)
 			       .build();
 	}
 	
@@ -0,0 +1,56 @@
+package com.example.springpracticereactivemongo.webfn;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.server.ServerWebInputException;
+
+import java.util.Set;
+
+/**
+ * Helper for the `sort` query parameter of the beer list endpoint.
+ * <p>
+ * The parameter names the field beers are ordered by, ascending, or descending when prefixed
+ * with `-`, e.g. `sort=price` for the cheapest beers first or `sort=-quantityOnHand` for the
+ * best stocked ones. Only fields with an index of their own and a compound index within styles
+ * can be sorted on, so a top-N request never falls back to a blocking in-memory sort.
+ */
+final class BeerSortParams {
+
+	public static final String SORT_PARAM = "sort";
+
+	/**
+	 * The fields beers can be sorted by.
+	 */
+	static final Set<String> SORTABLE_FIELDS = Set.of("price", "quantityOnHand");
+
+	private BeerSortParams() {
+	}
+
+	/**
+	 * Checks whether the request asks for a sorted top-N list.
+	 *
+	 * @param request the incoming HTTP request
+	 * @return `true` if the `sort` query parameter is present
+	 */
+	static boolean isRequested(ServerRequest request) {
+		return request.queryParam(SORT_PARAM).isPresent();
+	}
+
+	/**
+	 * Reads the requested order.
+	 *
+	 * @param request the incoming HTTP request
+	 * @return the order of the beers
+	 * @throws ServerWebInputException if the field cannot be sorted on
+	 */
+	static Sort parse(ServerRequest request) {
+		String value = request.queryParam(SORT_PARAM).orElse("").trim();
+		boolean descending = value.startsWith("-");
+		String field = descending ? value.substring(1) : value;
+
+		if (!SORTABLE_FIELDS.contains(field)) {
+			throw new ServerWebInputException("sort must be one of " + SORTABLE_FIELDS + ", optionally prefixed with -");
+		}
+		return Sort.by(descending ? Sort.Direction.DESC : Sort.Direction.ASC, field);
+	}
+}
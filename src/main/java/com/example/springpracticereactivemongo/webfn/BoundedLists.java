@@ -0,0 +1,42 @@
+package com.example.springpracticereactivemongo.webfn;
+
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Helper for list responses that are collected, e.g. to compute their `ETag`, only while they are short.
+ * <p>
+ * A list is read up to one item past the maximum. If it ends before, the collected items are written;
+ * otherwise the read is cancelled and the list is read again to be streamed, so a request never holds
+ * more than the maximum number of items in memory, however large the collection grows.
+ */
+final class BoundedLists {
+
+	private BoundedLists() {
+	}
+
+	/**
+	 * Writes a list from its collected items if it has at most the maximum number of items, or streams it otherwise.
+	 *
+	 * @param items        reads the items of the list, subscribed again to stream a long list
+	 * @param maximumItems the maximum number of items collected
+	 * @param collected    writes the response of a short list from its items
+	 * @param streamed     writes the response of a long list from its items, as they are read
+	 * @param <T>          the item type
+	 * @return a `Mono<ServerResponse>` from either function
+	 */
+	static <T> Mono<ServerResponse> collectOrStream(
+		Flux<T> items,
+		int maximumItems,
+		Function<List<T>, Mono<ServerResponse>> collected,
+		Function<Flux<T>, Mono<ServerResponse>> streamed
+	) {
+		return items.take(maximumItems + 1L)
+			       .collectList()
+			       .flatMap(list -> list.size() <= maximumItems ? collected.apply(list) : streamed.apply(items));
+	}
+}
@@ -1,8 +1,12 @@
 package com.example.springpracticereactivemongo.webfn;
 
 import com.example.springpracticereactivemongo.model.CustomerDTO;
+import com.example.springpracticereactivemongo.model.CustomerQuery;
 import com.example.springpracticereactivemongo.services.CustomerService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.BeanPropertyBindingResult;
 import org.springframework.validation.Errors;
@@ -12,17 +16,28 @@ import org.springframework.web.reactive.function.server.ServerResponse;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.server.ServerWebInputException;
 import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 @Component
 public class CustomerHandler {
 	
 	private final CustomerService customerService;
 	private final Validator validator;
+	private final int maximumListItems;
 	
-	public CustomerHandler(CustomerService customerService, Validator validator) {
+	public CustomerHandler(
+		CustomerService customerService,
+		Validator validator,
+		@Value("${app.customer.list.maximum-items:1000}") int maximumListItems
+	) {
 		this.customerService = customerService;
 		this.validator = validator;
+		this.maximumListItems = maximumListItems;
 	}
 	
 	/**
@@ -50,38 +65,215 @@ public class CustomerHandler {
 	 * This method processes a GET request and returns an HTTP 200 response
 	 * containing a reactive stream of `CustomerDTO` objects in the response body.
 	 * The list of customers is fetched using the `customerService.listCustomers` method.
+	 * If a "limit" or "cursor" query parameter is provided, only a single page is returned,
+	 * see {@link #listCustomersPage(ServerRequest, Set)}. If an "ids" query parameter is provided,
+	 * only the customers with those IDs are returned, see {@link #listCustomersByIds(ServerRequest, Set)}.
+	 * If a "fields" query parameter is provided, only the listed fields are read from the database
+	 * and returned for each customer.
+	 * <p>
+	 * A list of at most `app.customer.list.maximum-items` customers carries an `ETag` computed
+	 * from their IDs and versions; if it matches `If-None-Match`, an HTTP 304 response is returned
+	 * without a body. A longer list is streamed without an `ETag`, so it is never buffered in
+	 * memory as a whole. Clients that want the list streamed as it is read should use the NDJSON
+	 * route instead.
 	 *
 	 * @param request the incoming HTTP request
 	 * @return a `Mono<ServerResponse>` containing:
 	 * - HTTP 200 response with the list of customers in the response body.
-	 * - The response body is populated with a reactive stream of `CustomerDTO` objects.
+	 * - HTTP 304 response if the list has not changed since the client fetched it.
+	 * - HTTP 400 response if a selected field does not exist.
 	 */
 	public Mono<ServerResponse> listCustomers(ServerRequest request) {
-		return ServerResponse.ok()
-			       .body(
-				       customerService.listCustomers(), CustomerDTO.class
+		Set<String> fields = FieldSelection.parse(request, CustomerDTO.class);
+		
+		if (IdSelection.isRequested(request)) {
+			return listCustomersByIds(request, fields);
+		}
+		
+		if (PageCursor.isPaged(request)) {
+			return listCustomersPage(request, fields);
+		}
+		
+		Flux<CustomerDTO> customers = fields.isEmpty()
+			                              ? customerService.listCustomers()
+			                              : customerService.findCustomers(new CustomerQuery(null, null, fields));
+		
+		return BoundedLists.collectOrStream(
+			customers,
+			maximumListItems,
+			list -> okOrNotModified(request, ServerResponse.ok(), list, fields),
+			// too long to be buffered, streamed without an ETag
+			stream -> fields.isEmpty()
+				          ? ServerResponse.ok().body(stream, CustomerDTO.class)
+				          : ServerResponse.ok().body(
+					          stream.map(customerDTO -> FieldSelection.project(customerDTO, fields)),
+					          new ParameterizedTypeReference<Map<String, Object>>() {
+					          }
+				          )
+		);
+	}
+	
+	/**
+	 * Handles an HTTP GET request to retrieve a single page of customers.
+	 * <p>
+	 * The page holds at most "limit" customers, ordered by ID, starting after the position
+	 * encoded in the opaque "cursor" query parameter. When the page is full, the cursor
+	 * for the next page is returned in the `X-Next-Cursor` response header; a missing
+	 * header means the client has reached the end of the collection. Like the full list,
+	 * the page carries an `ETag` and honors `If-None-Match`.
+	 *
+	 * @param request the incoming HTTP request
+	 * @param fields  the selected fields, or empty for all fields
+	 * @return a `Mono<ServerResponse>` containing:
+	 * - HTTP 200 response with the page of customers in the response body.
+	 * - HTTP 304 response if the page has not changed since the client fetched it.
+	 * - HTTP 400 response if the limit or cursor is invalid.
+	 */
+	private Mono<ServerResponse> listCustomersPage(ServerRequest request, Set<String> fields) {
+		int limit = PageCursor.limit(request);
+		CustomerQuery customerQuery = new CustomerQuery(
+			PageCursor.afterId(request),
+			limit,
+			// the next cursor is derived from the ID of the last customer
+			FieldSelection.with(fields, "id")
+		);
+		
+		return customerService.findCustomers(customerQuery)
+			       .collectList()
+			       .flatMap(
+				       page -> okOrNotModified(
+					       request,
+					       PageCursor.withNextCursor(ServerResponse.ok(), page, limit, CustomerDTO::id),
+					       page,
+					       fields
+				       )
 			       );
 	}
 	
+	/**
+	 * Handles an HTTP GET request to retrieve many customers by their IDs.
+	 * <p>
+	 * The comma-separated "ids" query parameter lists the customers to return, which are fetched
+	 * with a single `$in` query through the `customerService.getCustomersByIds` method instead of
+	 * one request per customer. The customers are returned in the order of the IDs; IDs without a
+	 * customer are listed in the `X-Missing-Ids` response header. Like the full list, the response
+	 * carries an `ETag` and honors `If-None-Match`.
+	 *
+	 * @param request the incoming HTTP request
+	 * @param fields  the selected fields, or empty for all fields
+	 * @return a `Mono<ServerResponse>` containing:
+	 * - HTTP 200 response with the found customers in the response body.
+	 * - HTTP 304 response if the customers have not changed since the client fetched them.
+	 * - HTTP 400 response if no IDs or too many IDs are requested.
+	 */
+	private Mono<ServerResponse> listCustomersByIds(ServerRequest request, Set<String> fields) {
+		List<String> ids = IdSelection.parse(request);
+		
+		return customerService.getCustomersByIds(ids)
+			       .collectList()
+			       .flatMap(
+				       customers -> okOrNotModified(
+					       request,
+					       IdSelection.withMissingIds(ServerResponse.ok(), ids, customers, CustomerDTO::id),
+					       customers,
+					       fields
+				       )
+			       );
+	}
+	
+	/**
+	 * Writes a list of customers, reduced to the selected fields, with its `ETag`.
+	 *
+	 * @param request   the incoming HTTP request
+	 * @param ok        the builder of the 200 response, possibly with headers already set
+	 * @param customers the customers of the list
+	 * @param fields    the selected fields, or empty for all fields
+	 * @return a `Mono<ServerResponse>` with either HTTP 200 or HTTP 304
+	 */
+	private static Mono<ServerResponse> okOrNotModified(
+		ServerRequest request,
+		ServerResponse.BodyBuilder ok,
+		List<CustomerDTO> customers,
+		Set<String> fields
+	) {
+		if (fields.isEmpty()) {
+			return EntityTags.okOrNotModified(
+				request,
+				ok,
+				EntityTags.ofList(customers, CustomerDTO::id, CustomerDTO::version),
+				customers
+			);
+		}
+		
+		List<Map<String, Object>> projected = FieldSelection.projectAll(customers, fields);
+		return EntityTags.okOrNotModified(request, ok, EntityTags.ofContent(projected), projected);
+	}
+	
+	/**
+	 * Handles an HTTP GET request to stream customers as newline-delimited JSON.
+	 * <p>
+	 * This method is routed for clients that accept `application/x-ndjson`. Each customer is
+	 * written and flushed as soon as it is read from the database cursor, instead of
+	 * being wrapped in a single JSON array, and the client's read rate propagates back to
+	 * the cursor. The optional "fields" query parameter reduces each customer to the listed fields.
+	 *
+	 * @param request the incoming HTTP request
+	 * @return a `Mono<ServerResponse>` containing:
+	 * - HTTP 200 response streaming one `CustomerDTO` JSON document per line.
+	 * - HTTP 400 response if a selected field does not exist.
+	 */
+	public Mono<ServerResponse> streamCustomers(ServerRequest request) {
+		Set<String> fields = FieldSelection.parse(request, CustomerDTO.class);
+		Flux<CustomerDTO> customers = customerService.streamCustomers(new CustomerQuery(null, null, fields));
+		ServerResponse.BodyBuilder ok = ServerResponse.ok()
+			                                .contentType(MediaType.APPLICATION_NDJSON);
+		
+		if (fields.isEmpty()) {
+			return ok.body(customers, CustomerDTO.class);
+		}
+		return ok.body(
+			customers.map(customerDTO -> FieldSelection.project(customerDTO, fields)),
+			new ParameterizedTypeReference<>() {
+			}
+		);
+	}
+	
 	/**
 	 * Handles an HTTP GET request to retrieve a customer by ID.
 	 * <p>
 	 * This method processes a GET request to fetch a customer based on the provided ID
 	 * in the request path. If no customer is found with the given ID, a `ResponseStatusException`
 	 * with HTTP 404 status is thrown. The response is returned as an HTTP 200 status
-	 * with the customer details in the response body.
+	 * with the customer details in the response body and the customer version as its `ETag`,
+	 * to be sent back in `If-Match` on updates. If the `ETag` matches `If-None-Match`,
+	 * an HTTP 304 response is returned without a body. If a "fields" query parameter is
+	 * provided, only the listed fields are read and returned, and the `ETag` is computed
+	 * from their content.
 	 *
 	 * @param request the incoming HTTP request containing the customer ID in the path
 	 * @return a `Mono<ServerResponse>` containing:
 	 * - HTTP 200 response with the customer details in the response body.
+	 * - HTTP 304 response if the customer has not changed since the client fetched it.
+	 * - HTTP 400 response if a selected field does not exist.
 	 * - HTTP 404 response if the customer is not found.
 	 */
 	public Mono<ServerResponse> getCustomerById(ServerRequest request) {
-		return ServerResponse.ok()
-			       .body(
-				       customerService.getCustomerById(request.pathVariable("id"))
-					       .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND))), CustomerDTO.class
-			       );
+		Set<String> fields = FieldSelection.parse(request, CustomerDTO.class);
+		
+		return customerService.getCustomerById(request.pathVariable("id"), fields)
+			       .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+			       .flatMap(customerDTO -> {
+				       if (fields.isEmpty()) {
+					       return EntityTags.okOrNotModified(
+						       request,
+						       ServerResponse.ok(),
+						       EntityTags.of(customerDTO.version()),
+						       customerDTO
+					       );
+				       }
+				       Map<String, Object> projected = FieldSelection.project(customerDTO, fields);
+				       return EntityTags.okOrNotModified(request, ServerResponse.ok(), EntityTags.ofContent(projected), projected);
+			       });
 	}
 	
 	/**
@@ -117,25 +309,32 @@ public class CustomerHandler {
 	 * in the request path. The request body is expected to contain a `CustomerDTO` object,
 	 * which is validated before being passed to the `customerService.updateCustomer` method.
 	 * If no customer is found with the given ID, a `ResponseStatusException` with HTTP 404
-	 * status is thrown. Upon successful update, the method returns an HTTP 204 response
-	 * with no content.
+	 * status is thrown. If an `If-Match` header is sent, the update only applies while the
+	 * customer still has that version, otherwise an HTTP 412 status is returned. Upon
+	 * successful update, the method returns an HTTP 204 response with the new `ETag`.
 	 *
 	 * @param request the incoming HTTP request containing the customer ID in the path
 	 *                and the `CustomerDTO` in the body
 	 * @return a `Mono<ServerResponse>` containing:
 	 * - HTTP 204 response with no content upon successful update.
 	 * - HTTP 404 response if the customer is not found.
+	 * - HTTP 412 response if the customer version does not match `If-Match`.
 	 */
 	public Mono<ServerResponse> updateCustomer(ServerRequest request) {
+		String id = request.pathVariable("id");
+		Long expectedVersion = EntityTags.ifMatchVersion(request);
+		
 		return request.bodyToMono(CustomerDTO.class)
 			       .doOnNext(this::validate)
 			       .flatMap(
-				       customerDTO -> customerService.updateCustomer(request.pathVariable("id"), customerDTO)
+				       customerDTO -> customerService.updateCustomer(id, customerDTO, expectedVersion)
 			       )
 			       .switchIfEmpty(
-				       Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND))
+				       EntityTags.notFoundOrPreconditionFailed(expectedVersion, () -> customerService.getCustomerById(id))
 			       )
-			       .flatMap(_ -> ServerResponse.noContent().build());
+			       .flatMap(
+				       updated -> ServerResponse.noContent().headers(EntityTags.eTag(updated.version())).build()
+			       );
 	}
 	
 	/**
@@ -145,32 +344,39 @@ public class CustomerHandler {
 	 * in the request path. The request body is expected to contain a `CustomerDTO` object,
 	 * which is validated before being passed to the `customerService.patchCustomer` method.
 	 * If no customer is found with the given ID, a `ResponseStatusException` with HTTP 404
-	 * status is thrown. Upon successful update, the method returns an HTTP 204 response
-	 * with no content.
+	 * status is thrown. If an `If-Match` header is sent, the patch only applies while the
+	 * customer still has that version, otherwise an HTTP 412 status is returned. Upon
+	 * successful update, the method returns an HTTP 204 response with the new `ETag`.
 	 *
 	 * @param request the incoming HTTP request containing the customer ID in the path
 	 *                and the `CustomerDTO` in the body
 	 * @return a `Mono<ServerResponse>` containing:
 	 * - HTTP 204 response with no content upon successful update.
 	 * - HTTP 404 response if the customer is not found.
+	 * - HTTP 412 response if the customer version does not match `If-Match`.
 	 */
 	public Mono<ServerResponse> patchCustomer(ServerRequest request) {
+		String id = request.pathVariable("id");
+		Long expectedVersion = EntityTags.ifMatchVersion(request);
+		
 		return request.bodyToMono(CustomerDTO.class)
 			       .doOnNext(this::validate)
 			       .flatMap(
-				       customerDTO -> customerService.patchCustomer(request.pathVariable("id"), customerDTO)
+				       customerDTO -> customerService.patchCustomer(id, customerDTO, expectedVersion)
 			       )
 			       .switchIfEmpty(
-				       Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND))
+				       EntityTags.notFoundOrPreconditionFailed(expectedVersion, () -> customerService.getCustomerById(id))
 			       )
-			       .flatMap(_ -> ServerResponse.noContent().build());
+			       .flatMap(
+				       updated -> ServerResponse.noContent().headers(EntityTags.eTag(updated.version())).build()
+			       );
 	}
 	
 	/**
 	 * Handles an HTTP DELETE request to delete an existing customer.
 	 * <p>
 	 * This method processes a DELETE request to remove a customer based on the provided ID
-	 * in the request path. If no customer is found with the given ID, a `ResponseStatusException`
+	 * in the request path, in a single round trip. If no customer was deleted, a `ResponseStatusException`
 	 * with HTTP 404 status is thrown. Upon successful deletion, the method returns an HTTP 204
 	 * response with no content.
 	 *
@@ -180,14 +386,12 @@ public class CustomerHandler {
 	 * - HTTP 404 response if the customer is not found.
 	 */
 	public Mono<ServerResponse> deleteCustomer(ServerRequest request) {
-		return customerService.getCustomerById(request.pathVariable("id"))
+		return customerService.deleteCustomerById(request.pathVariable("id"))
+			       .filter(deleted -> deleted > 0)
 			       .switchIfEmpty(
 				       Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND))
 			       )
-			       .flatMap(
-				       customerDTO -> customerService.deleteCustomerById(customerDTO.id())
-			       )
-			       .then(ServerResponse.noContent().build());
+			       .flatMap(_ -> ServerResponse.noContent().build());
 	}
 	
 }
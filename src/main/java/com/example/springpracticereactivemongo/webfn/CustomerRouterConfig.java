@@ -15,20 +15,24 @@ public class CustomerRouterConfig {
 	public static final String CUSTOMER_PATH = "/api/v3/customer";
 	public static final String CUSTOMER_PATH_ID = CUSTOMER_PATH + "/{id}";
 	private final CustomerHandler customerHandler;
+	private final RouteMetrics routeMetrics;
 	
-	public CustomerRouterConfig(CustomerHandler customerHandler) {
+	public CustomerRouterConfig(CustomerHandler customerHandler, RouteMetrics routeMetrics) {
 		this.customerHandler = customerHandler;
+		this.routeMetrics = routeMetrics;
 	}
 	
 	@Bean
 	public RouterFunction<ServerResponse> createCustomerRouter() {
 		return route()
 			       .GET(CUSTOMER_PATH, accept(MediaType.APPLICATION_JSON), customerHandler::listCustomers)
+			       .GET(CUSTOMER_PATH, accept(MediaType.APPLICATION_NDJSON), customerHandler::streamCustomers)
 			       .GET(CUSTOMER_PATH_ID, accept(MediaType.APPLICATION_JSON), customerHandler::getCustomerById)
 			       .POST(CUSTOMER_PATH, accept(MediaType.APPLICATION_JSON), customerHandler::createCustomer)
 			       .PUT(CUSTOMER_PATH_ID, accept(MediaType.APPLICATION_JSON), customerHandler::updateCustomer)
 			       .PATCH(CUSTOMER_PATH_ID, accept(MediaType.APPLICATION_JSON), customerHandler::patchCustomer)
 			       .DELETE(CUSTOMER_PATH_ID, accept(MediaType.APPLICATION_JSON), customerHandler::deleteCustomer)
+			       .filter(routeMetrics)
 			       .build();
 	}
 }
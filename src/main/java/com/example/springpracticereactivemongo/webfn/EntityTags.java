@@ -0,0 +1,169 @@
+package com.example.springpracticereactivemongo.webfn;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Helper for entity tags (ETags) derived from the version of a document.
+ * <p>
+ * Every write increments the version of a document, so `"<version>"` is a strong ETag for it.
+ * Clients send it back in `If-Match` to make a PUT or PATCH conditional on nobody having
+ * written the document in the meantime, and in `If-None-Match` to get a bodyless HTTP 304
+ * when a document or list they already hold has not changed.
+ */
+final class EntityTags {
+
+	private EntityTags() {
+	}
+
+	/**
+	 * Builds the strong ETag of a document version.
+	 *
+	 * @param version the version of the document
+	 * @return the quoted ETag, or `null` if the document has no version
+	 */
+	static String of(Long version) {
+		return version != null ? "\"" + version + "\"" : null;
+	}
+
+	/**
+	 * Builds the strong ETag of a list of documents from their IDs and versions.
+	 * The ETag changes whenever a document is added to, removed from or written in the list.
+	 *
+	 * @param documents the documents of the list, in response order
+	 * @param idOf      extracts the ID of a document
+	 * @param versionOf extracts the version of a document
+	 * @param <T>       the document type
+	 * @return the quoted ETag
+	 */
+	static <T> String ofList(List<T> documents, Function<T, String> idOf, Function<T, Long> versionOf) {
+		StringBuilder identity = new StringBuilder();
+		for (T document : documents) {
+			identity.append(idOf.apply(document)).append(':').append(versionOf.apply(document)).append(';');
+		}
+		return "\"" + DigestUtils.md5DigestAsHex(identity.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+	}
+	
+	/**
+	 * Builds the strong ETag of a response body from its content.
+	 * Used for partial representations, which may not carry the IDs and versions of their documents.
+	 *
+	 * @param body the response body
+	 * @return the quoted ETag
+	 */
+	static String ofContent(Object body) {
+		return "\"" + DigestUtils.md5DigestAsHex(String.valueOf(body).getBytes(StandardCharsets.UTF_8)) + "\"";
+	}
+	
+	/**
+	 * Sets the `ETag` response header for a document version, if it has one.
+	 *
+	 * @param version the version of the document
+	 * @return a consumer to pass to `ServerResponse.HeadersBuilder#headers`
+	 */
+	static Consumer<HttpHeaders> eTag(Long version) {
+		return headers -> {
+			if (version != null) {
+				headers.setETag(of(version));
+			}
+		};
+	}
+
+	/**
+	 * Writes a 200 response with the given ETag, or a bodyless 304 response if the client
+	 * already holds a representation with that ETag according to `If-None-Match`.
+	 * The body is only serialized in the 200 case.
+	 *
+	 * @param request the incoming HTTP request
+	 * @param ok      the builder of the 200 response, possibly with headers already set
+	 * @param eTag    the ETag of the body, or `null` if it has none
+	 * @param body    the body of the 200 response
+	 * @return a `Mono<ServerResponse>` with either status
+	 */
+	static Mono<ServerResponse> okOrNotModified(ServerRequest request, ServerResponse.BodyBuilder ok, String eTag, Object body) {
+		if (eTag == null) {
+			return ok.bodyValue(body);
+		}
+		if (isNoneMatchSatisfied(request, eTag)) {
+			return ok.eTag(eTag).bodyValue(body);
+		}
+		return ServerResponse.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+	}
+	
+	/**
+	 * Checks the `If-None-Match` request header against an ETag, using weak comparison.
+	 *
+	 * @param request the incoming HTTP request
+	 * @param eTag    the current ETag
+	 * @return `true` if the header is missing or none of its ETags match
+	 */
+	private static boolean isNoneMatchSatisfied(ServerRequest request, String eTag) {
+		List<String> ifNoneMatch = request.headers().header(HttpHeaders.IF_NONE_MATCH);
+		for (String header : ifNoneMatch) {
+			for (String tag : header.split(",")) {
+				String candidate = tag.trim();
+				if (candidate.startsWith("W/")) {
+					candidate = candidate.substring(2);
+				}
+				if (candidate.equals("*") || candidate.equals(eTag)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Reads the document version the client expects from the `If-Match` request header.
+	 *
+	 * @param request the incoming HTTP request
+	 * @return the expected version, or `null` if the header is missing or `*`
+	 * @throws ResponseStatusException with HTTP 412 if the header can never match a document version
+	 */
+	static Long ifMatchVersion(ServerRequest request) {
+		String ifMatch = request.headers().firstHeader(HttpHeaders.IF_MATCH);
+		if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+			return null;
+		}
+
+		String tag = ifMatch.split(",")[0].trim();
+		if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+			try {
+				return Long.parseLong(tag.substring(1, tag.length() - 1));
+			} catch (NumberFormatException e) {
+				// fall through to the precondition failure below
+			}
+		}
+		throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED);
+	}
+
+	/**
+	 * Explains why a conditional write did not modify any document.
+	 *
+	 * @param expectedVersion the version from the `If-Match` header, or `null` if the write was unconditional
+	 * @param lookup          looks up the document, only called for conditional writes
+	 * @param <T>             the type of the write result
+	 * @return a `Mono` failing with HTTP 412 if the document exists with another version, or HTTP 404 otherwise
+	 */
+	static <T> Mono<T> notFoundOrPreconditionFailed(Long expectedVersion, Supplier<Mono<?>> lookup) {
+		if (expectedVersion == null) {
+			return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND));
+		}
+		return Mono.defer(lookup)
+			       .hasElement()
+			       .flatMap(exists -> Mono.error(new ResponseStatusException(
+				       exists ? HttpStatus.PRECONDITION_FAILED : HttpStatus.NOT_FOUND
+			       )));
+	}
+}
@@ -0,0 +1,122 @@
+package com.example.springpracticereactivemongo.webfn;
+
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.server.ServerWebInputException;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Helper for sparse fieldsets on the read endpoints.
+ * <p>
+ * Clients list the DTO fields they need in the {@value #FIELDS_PARAM} query parameter, e.g.
+ * `?fields=beerName,price`. The selection is pushed down to the database as a projection and
+ * the response only carries the selected fields, so unselected fields are neither read, sent
+ * over the wire nor serialized.
+ */
+final class FieldSelection {
+
+	public static final String FIELDS_PARAM = "fields";
+
+	private static final Map<Class<?>, Map<String, RecordComponent>> COMPONENTS = new ConcurrentHashMap<>();
+
+	private FieldSelection() {
+	}
+
+	/**
+	 * Reads the selected fields from the {@value #FIELDS_PARAM} query parameter.
+	 *
+	 * @param request the incoming HTTP request
+	 * @param dtoType the DTO type the fields belong to
+	 * @return the selected fields in request order, or an empty set if all fields are requested
+	 * @throws ServerWebInputException if a selected field does not exist on the DTO
+	 */
+	static Set<String> parse(ServerRequest request, Class<? extends Record> dtoType) {
+		String value = request.queryParam(FIELDS_PARAM).orElse(null);
+		if (value == null || value.isBlank()) {
+			return Collections.emptySet();
+		}
+
+		Map<String, RecordComponent> components = componentsOf(dtoType);
+		Set<String> fields = new LinkedHashSet<>();
+		for (String field : value.split(",")) {
+			String name = field.trim();
+			if (!components.containsKey(name)) {
+				throw new ServerWebInputException("Unknown field: " + name);
+			}
+			fields.add(name);
+		}
+		return Collections.unmodifiableSet(fields);
+	}
+
+	/**
+	 * Adds a field to a selection, unless all fields are selected anyway.
+	 *
+	 * @param fields the selected fields
+	 * @param field  the field to add
+	 * @return the selection including the field
+	 */
+	static Set<String> with(Set<String> fields, String field) {
+		if (fields.isEmpty() || fields.contains(field)) {
+			return fields;
+		}
+
+		Set<String> extended = new LinkedHashSet<>(fields);
+		extended.add(field);
+		return Collections.unmodifiableSet(extended);
+	}
+
+	/**
+	 * Copies the selected fields of a DTO into a map, in selection order.
+	 *
+	 * @param dto    the DTO to read
+	 * @param fields the selected fields
+	 * @return the selected fields by name
+	 */
+	static Map<String, Object> project(Record dto, Set<String> fields) {
+		Map<String, RecordComponent> components = componentsOf(dto.getClass());
+		Map<String, Object> projected = new LinkedHashMap<>();
+		for (String field : fields) {
+			try {
+				projected.put(field, components.get(field).getAccessor().invoke(dto));
+			} catch (IllegalAccessException | InvocationTargetException e) {
+				throw new IllegalStateException("Cannot read " + field + " of " + dto.getClass().getSimpleName(), e);
+			}
+		}
+		return projected;
+	}
+
+	/**
+	 * Copies the selected fields of each DTO of a list into a map.
+	 *
+	 * @param dtos   the DTOs to read
+	 * @param fields the selected fields
+	 * @return one map of the selected fields by name per DTO, in list order
+	 */
+	static List<Map<String, Object>> projectAll(List<? extends Record> dtos, Set<String> fields) {
+		return dtos.stream()
+			       .map(dto -> project(dto, fields))
+			       .toList();
+	}
+
+	/**
+	 * Looks up the record components of a DTO type by name, caching them per type.
+	 *
+	 * @param dtoType the DTO type
+	 * @return the record components by name
+	 */
+	private static Map<String, RecordComponent> componentsOf(Class<?> dtoType) {
+		return COMPONENTS.computeIfAbsent(dtoType, type -> Arrays.stream(type.getRecordComponents())
+			                                                   .collect(Collectors.toMap(RecordComponent::getName, Function.identity())));
+	}
+}
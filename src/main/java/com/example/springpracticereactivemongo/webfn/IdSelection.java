@@ -0,0 +1,93 @@
+package com.example.springpracticereactivemongo.webfn;
+
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Helper for multi-get requests on the list endpoints.
+ * <p>
+ * Clients that need many documents by ID list them in the {@value #IDS_PARAM} query parameter,
+ * e.g. `?ids=a,b,c`, and get them in a single request that is resolved with a single `$in`
+ * query. The response lists the found documents in request order; the requested IDs without a
+ * document are returned in the {@value #MISSING_IDS_HEADER} response header.
+ */
+final class IdSelection {
+
+	public static final String IDS_PARAM = "ids";
+	public static final String MISSING_IDS_HEADER = "X-Missing-Ids";
+	public static final int MAX_IDS = 100;
+
+	private IdSelection() {
+	}
+
+	/**
+	 * Checks whether the request asks for documents by ID instead of the full list.
+	 *
+	 * @param request the incoming HTTP request
+	 * @return `true` if the `ids` query parameter is present
+	 */
+	static boolean isRequested(ServerRequest request) {
+		return request.queryParam(IDS_PARAM).isPresent();
+	}
+
+	/**
+	 * Reads the requested IDs from the {@value #IDS_PARAM} query parameter.
+	 * The parameter may be repeated and each value may hold a comma-separated list.
+	 *
+	 * @param request the incoming HTTP request
+	 * @return the requested IDs in request order, without duplicates
+	 * @throws ServerWebInputException if no ID or more than {@value #MAX_IDS} IDs are requested
+	 */
+	static List<String> parse(ServerRequest request) {
+		Set<String> ids = new LinkedHashSet<>();
+		for (String value : request.queryParams().getOrDefault(IDS_PARAM, List.of())) {
+			for (String id : value.split(",")) {
+				if (!id.isBlank()) {
+					ids.add(id.trim());
+				}
+			}
+		}
+
+		if (ids.isEmpty()) {
+			throw new ServerWebInputException("ids must not be empty");
+		}
+		if (ids.size() > MAX_IDS) {
+			throw new ServerWebInputException("At most " + MAX_IDS + " ids can be requested at once");
+		}
+		return List.copyOf(ids);
+	}
+
+	/**
+	 * Adds the {@value #MISSING_IDS_HEADER} header to the response when some requested IDs
+	 * were not found.
+	 *
+	 * @param builder the response builder
+	 * @param ids     the requested IDs
+	 * @param found   the documents found for them
+	 * @param idOf    extracts the ID of a document
+	 * @param <T>     the document type
+	 * @return the same builder, for chaining
+	 */
+	static <T> ServerResponse.BodyBuilder withMissingIds(
+		ServerResponse.BodyBuilder builder,
+		List<String> ids,
+		List<T> found,
+		Function<T, String> idOf
+	) {
+		List<String> missing = new ArrayList<>(ids);
+		missing.removeAll(found.stream().map(idOf).collect(Collectors.toSet()));
+
+		if (!missing.isEmpty()) {
+			builder.header(MISSING_IDS_HEADER, String.join(",", missing));
+		}
+		return builder;
+	}
+}
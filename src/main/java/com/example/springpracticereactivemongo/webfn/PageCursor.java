@@ -0,0 +1,132 @@
+package com.example.springpracticereactivemongo.webfn;
+
+import org.bson.types.ObjectId;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Helper for keyset (cursor) pagination on the list endpoints.
+ * <p>
+ * Pages are walked on the document `_id` instead of skip/offset, so every page costs the same
+ * regardless of how deep into the collection the client is. The cursor handed to clients is an
+ * opaque, URL-safe encoding of the last `_id` of the previous page and is returned in the
+ * {@value #NEXT_CURSOR_HEADER} response header.
+ */
+final class PageCursor {
+
+	public static final String LIMIT_PARAM = "limit";
+	public static final String CURSOR_PARAM = "cursor";
+	public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+	public static final int DEFAULT_LIMIT = 50;
+	public static final int MAX_LIMIT = 1000;
+
+	private PageCursor() {
+	}
+
+	/**
+	 * Checks whether the request asks for a single page instead of the full list.
+	 *
+	 * @param request the incoming HTTP request
+	 * @return `true` if either the `limit` or the `cursor` query parameter is present
+	 */
+	static boolean isPaged(ServerRequest request) {
+		return request.queryParam(LIMIT_PARAM).isPresent() || request.queryParam(CURSOR_PARAM).isPresent();
+	}
+
+	/**
+	 * Reads the requested page size, falling back to {@value #DEFAULT_LIMIT}.
+	 *
+	 * @param request the incoming HTTP request
+	 * @return the page size, between 1 and {@value #MAX_LIMIT}
+	 * @throws ServerWebInputException if the limit is not a number or out of range
+	 */
+	static int limit(ServerRequest request) {
+		String value = request.queryParam(LIMIT_PARAM).orElse(null);
+		if (value == null) {
+			return DEFAULT_LIMIT;
+		}
+
+		int limit;
+		try {
+			limit = Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			throw new ServerWebInputException("limit must be a number");
+		}
+
+		if (limit < 1 || limit > MAX_LIMIT) {
+			throw new ServerWebInputException("limit must be between 1 and " + MAX_LIMIT);
+		}
+		return limit;
+	}
+
+	/**
+	 * Decodes the `cursor` query parameter into the `_id` the next page starts after.
+	 *
+	 * @param request the incoming HTTP request
+	 * @return the decoded `_id`, or `null` when the first page is requested
+	 * @throws ServerWebInputException if the cursor was not issued by this API
+	 */
+	static String afterId(ServerRequest request) {
+		return request.queryParam(CURSOR_PARAM)
+			       .map(PageCursor::decode)
+			       .orElse(null);
+	}
+
+	/**
+	 * Adds the {@value #NEXT_CURSOR_HEADER} header to the response when the page is full,
+	 * which means there may be more documents after it.
+	 *
+	 * @param builder the response builder
+	 * @param page    the page about to be returned
+	 * @param limit   the requested page size
+	 * @param idOf    extracts the `_id` of a page element
+	 * @param <T>     the page element type
+	 * @return the same builder, for chaining
+	 */
+	static <T> ServerResponse.BodyBuilder withNextCursor(
+		ServerResponse.BodyBuilder builder,
+		List<T> page,
+		int limit,
+		Function<T, String> idOf
+	) {
+		if (page.size() == limit) {
+			builder.header(NEXT_CURSOR_HEADER, encode(idOf.apply(page.getLast())));
+		}
+		return builder;
+	}
+
+	/**
+	 * Encodes an `_id` into an opaque cursor.
+	 *
+	 * @param id the `_id` of the last document of a page
+	 * @return the URL-safe cursor
+	 */
+	static String encode(String id) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(id.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Decodes a cursor previously produced by {@link #encode(String)}.
+	 *
+	 * @param cursor the opaque cursor
+	 * @return the `_id` the next page starts after
+	 * @throws ServerWebInputException if the cursor is malformed
+	 */
+	static String decode(String cursor) {
+		try {
+			String id = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			if (ObjectId.isValid(id)) {
+				return id;
+			}
+		} catch (IllegalArgumentException e) {
+			// fall through to the input error below
+		}
+		throw new ServerWebInputException("Invalid cursor");
+	}
+}
@@ -0,0 +1,231 @@
+package com.example.springpracticereactivemongo.webfn;
+
+import com.example.springpracticereactivemongo.services.BeersChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Cache of fully encoded JSON responses of the hottest list queries.
+ * <p>
+ * Entries are keyed by the beer style the list is built from and the media type it is written as,
+ * the only parameters of the cached lists that change the response, so requests with unrelated query
+ * parameters share an entry. An entry holds the response body as JSON bytes together with its `ETag`,
+ * so a hit costs neither a database query nor a serialization: the bytes are wrapped into a
+ * {@link DataBuffer} and written as is. A {@link BeersChangedEvent} drops the entries of the changed
+ * style and those built from beers of all styles, and leaves the others alone. The cache is bounded by
+ * the total size of the encoded bodies and entries expire after a fixed time to live. Hit, miss and
+ * eviction counts are published as `cache.*` metrics.
+ * <p>
+ * Only lists of at most a maximum number of items are collected and cached. Reading a list stops
+ * as soon as it is longer; the request is then marked as oversized, so until its style changes it
+ * is answered without the cache and the caller can stream the list instead of buffering it.
+ * <p>
+ * Concurrent misses for the same key share a single read: the first one fills the entry and the others
+ * wait for it, so a burst of identical requests after an eviction costs one query. Requests that joined
+ * a fill in flight are counted by the {@value #COALESCED_METRIC} counter.
+ */
+@Component
+class ResponseCache {
+
+	static final String COALESCED_METRIC = "beer.requests.coalesced";
+
+	/**
+	 * The parameters of a cached response.
+	 *
+	 * @param style     the beer style the list is built from, or `null` if it is built from beers of all styles
+	 * @param mediaType the media type the list is written as
+	 */
+	private record Key(String style, MediaType mediaType) {
+	}
+
+	/**
+	 * An encoded response body.
+	 *
+	 * @param json the JSON encoded body, or `null` if the list was too long to be cached
+	 * @param eTag the ETag of the body
+	 */
+	record Entry(byte[] json, String eTag) {
+
+		private static final Entry OVERSIZED = new Entry(null, null);
+
+		/**
+		 * Checks whether the list was too long to be cached.
+		 *
+		 * @return `true` if the entry has no body
+		 */
+		boolean isOversized() {
+			return json == null;
+		}
+
+		/**
+		 * Wraps the encoded body into a buffer, without copying it.
+		 *
+		 * @return a buffer over the encoded body
+		 */
+		DataBuffer body() {
+			return DefaultDataBufferFactory.sharedInstance.wrap(json);
+		}
+	}
+
+	private final AsyncCache<Key, Entry> entries;
+	private final Counter coalesced;
+	private final ObjectMapper objectMapper;
+	private final int maximumItems;
+	private final Set<MediaType> mediaTypes = ConcurrentHashMap.newKeySet();
+	// changes to a single style, by style
+	private final Map<String, AtomicLong> styleGenerations = new ConcurrentHashMap<>();
+	// changes that may affect any style
+	private final AtomicLong allStylesGeneration = new AtomicLong();
+	// every change, all of which affect the lists built from beers of all styles
+	private final AtomicLong anyChangeGeneration = new AtomicLong();
+
+	/**
+	 * Constructor for ResponseCache.
+	 *
+	 * @param objectMapper  the mapper used to encode response bodies, the same one used by the JSON codecs
+	 * @param meterRegistry the registry the cache metrics are published to
+	 * @param maximumBytes  the maximum total size of the encoded bodies
+	 * @param maximumItems  the maximum number of items of a cached list
+	 * @param timeToLive    how long an entry is served after it was encoded
+	 */
+	ResponseCache(
+		ObjectMapper objectMapper,
+		MeterRegistry meterRegistry,
+		@Value("${app.beer.response-cache.maximum-bytes:16777216}") long maximumBytes,
+		@Value("${app.beer.response-cache.maximum-items:1000}") int maximumItems,
+		@Value("${app.beer.response-cache.time-to-live:1m}") Duration timeToLive
+	) {
+		this.objectMapper = objectMapper;
+		this.maximumItems = maximumItems;
+		this.entries = CaffeineCacheMetrics.monitor(
+			meterRegistry,
+			Caffeine.newBuilder()
+				.maximumWeight(maximumBytes)
+				.<Key, Entry>weigher((key, entry) -> entry.isOversized() ? 1 : entry.json().length)
+				.expireAfterWrite(timeToLive)
+				.recordStats()
+				.buildAsync(),
+			"beerListResponses"
+		);
+		this.coalesced = Counter.builder(COALESCED_METRIC)
+			.description("Reads served by joining an identical read already in flight")
+			.tag("operation", "listBeers")
+			.register(meterRegistry);
+	}
+
+	/**
+	 * Returns the cached response for a beer style and media type, encoding it on a miss.
+	 * <p>
+	 * A miss while the same response is being filled waits for that fill instead of reading the list again.
+	 * A body is only kept if no beers of its style changed while it was read and encoded, so a slow read can
+	 * never put a response back that a concurrent write has just invalidated, while writes to other styles
+	 * do not discard it. If the list has more than the maximum number of items, the read is cancelled and
+	 * nothing is emitted.
+	 *
+	 * @param style     the beer style the list is built from, or `null` if it is built from beers of all styles
+	 * @param mediaType the media type the list is written as
+	 * @param items     reads the items of the list
+	 * @param eTagOf    computes the ETag of the list
+	 * @param <T>       the item type
+	 * @return a `Mono` emitting the encoded list, or empty if the list is too long to be cached
+	 */
+	<T> Mono<Entry> get(String style, MediaType mediaType, Flux<T> items, Function<List<T>, String> eTagOf) {
+		Key key = new Key(style, mediaType);
+		mediaTypes.add(mediaType);
+
+		return Mono.defer(() -> {
+			long readGeneration = generationOf(style);
+			AtomicBoolean filled = new AtomicBoolean();
+			CompletableFuture<Entry> entry = entries.get(key, (_, _) -> {
+				filled.set(true);
+				return fill(items, eTagOf).toFuture();
+			});
+
+			if (filled.get()) {
+				entry.thenRun(() -> {
+					if (generationOf(style) != readGeneration) {
+						entries.asMap().remove(key, entry);
+					}
+				});
+			} else if (!entry.isDone()) {
+				coalesced.increment();
+			}
+			// a waiting request that is cancelled must not cancel the fill shared with the others
+			return Mono.fromFuture(entry, true).filter(cached -> !cached.isOversized());
+		});
+	}
+
+	/**
+	 * Reads and encodes a list, or marks it as oversized as soon as it has more than the maximum number of items.
+	 */
+	private <T> Mono<Entry> fill(Flux<T> items, Function<List<T>, String> eTagOf) {
+		return items.take(maximumItems + 1L)
+			       .collectList()
+			       .map(list -> list.size() > maximumItems ? Entry.OVERSIZED : new Entry(encode(list), eTagOf.apply(list)));
+	}
+
+	/**
+	 * Returns a number that changes whenever beers a list of the given style is built from change.
+	 * Both generations of a style only grow, so their sum does too.
+	 */
+	private long generationOf(String style) {
+		if (style == null) {
+			return anyChangeGeneration.get();
+		}
+		AtomicLong styleGeneration = styleGenerations.get(style);
+		return allStylesGeneration.get() + (styleGeneration != null ? styleGeneration.get() : 0);
+	}
+
+	/**
+	 * Drops the responses built from beers of the changed style, and those built from beers of all styles,
+	 * together with their oversized marks and fills in flight.
+	 *
+	 * @param event the change event
+	 */
+	@EventListener
+	void onBeersChanged(BeersChangedEvent event) {
+		anyChangeGeneration.incrementAndGet();
+		if (event.beerStyle() == null) {
+			allStylesGeneration.incrementAndGet();
+			entries.synchronous().invalidateAll();
+			return;
+		}
+
+		styleGenerations.computeIfAbsent(event.beerStyle(), _ -> new AtomicLong()).incrementAndGet();
+		for (MediaType mediaType : mediaTypes) {
+			entries.synchronous().invalidate(new Key(event.beerStyle(), mediaType));
+			entries.synchronous().invalidate(new Key(null, mediaType));
+		}
+	}
+
+	private byte[] encode(Object value) {
+		try {
+			return objectMapper.writeValueAsBytes(value);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Cannot encode response body", e);
+		}
+	}
+}
@@ -0,0 +1,176 @@
+package com.example.springpracticereactivemongo.webfn;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseCookie;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.function.server.HandlerFilterFunction;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records response size and concurrency metrics for every functional route.
+ * <p>
+ * Latencies, status codes and outcomes are recorded by the built-in `http.server.requests` timer, whose
+ * `uri` tag is the route template and whose percentiles, histogram and SLOs are configured under
+ * `management.metrics.distribution`. This filter adds the meters that timer lacks, tagged with the route
+ * template the request matched, e.g. `/api/v3/beer/{id}`, never with the raw path, so the number of time
+ * series stays bounded by the number of routes:
+ * <p>
+ * - {@value #RESPONSE_SIZE_METRIC}: the number of body bytes written, tagged with route and method.
+ * - {@value #ACTIVE_METRIC}: a gauge of the requests of a route currently in flight.
+ * <p>
+ * The filter is applied to the routes of every router configuration.
+ */
+@Component
+class RouteMetrics implements HandlerFilterFunction<ServerResponse, ServerResponse> {
+
+	static final String RESPONSE_SIZE_METRIC = "http.route.response.size";
+	static final String ACTIVE_METRIC = "http.route.active";
+
+	private static final String UNKNOWN_ROUTE = "UNKNOWN";
+
+	private final MeterRegistry meterRegistry;
+	private final Meter.MeterProvider<DistributionSummary> responseSizes;
+	private final Map<String, AtomicInteger> active = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructor for RouteMetrics.
+	 *
+	 * @param meterRegistry the registry the route metrics are published to
+	 */
+	RouteMetrics(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+		this.responseSizes = DistributionSummary.builder(RESPONSE_SIZE_METRIC)
+			                     .description("Size of the response bodies")
+			                     .baseUnit("bytes")
+			                     .publishPercentileHistogram()
+			                     .withRegistry(meterRegistry);
+	}
+
+	@Override
+	public Mono<ServerResponse> filter(ServerRequest request, HandlerFunction<ServerResponse> next) {
+		RouteRequest routeRequest = new RouteRequest(routeOf(request), request.method().name());
+		AtomicBoolean responded = new AtomicBoolean();
+
+		return Mono.defer(() -> next.handle(request))
+			       .<ServerResponse>map(response -> {
+				       responded.set(true);
+				       return new MeteredResponse(response, routeRequest);
+			       })
+			       .doOnError(_ -> routeRequest.stop(0))
+			       .doFinally(signal -> {
+				       // a request cancelled before the handler answered is never written
+				       if (signal == SignalType.CANCEL && !responded.get()) {
+					       routeRequest.stop(0);
+				       }
+			       });
+	}
+
+	private static String routeOf(ServerRequest request) {
+		return request.attribute(RouterFunctions.MATCHING_PATTERN_ATTRIBUTE)
+			       .map(pattern -> ((PathPattern) pattern).getPatternString())
+			       .orElse(UNKNOWN_ROUTE);
+	}
+
+	/**
+	 * The metrics of one request, recorded exactly once when it ends.
+	 */
+	private final class RouteRequest {
+
+		private final String route;
+		private final String method;
+		private final AtomicInteger inFlight;
+		private final AtomicBoolean stopped = new AtomicBoolean();
+
+		RouteRequest(String route, String method) {
+			this.route = route;
+			this.method = method;
+			this.inFlight = active.computeIfAbsent(route, r -> meterRegistry.gauge(ACTIVE_METRIC, Tags.of("route", r), new AtomicInteger()));
+			this.inFlight.incrementAndGet();
+		}
+
+		/**
+		 * Records the request.
+		 *
+		 * @param bytes the number of body bytes written
+		 */
+		void stop(long bytes) {
+			if (!stopped.compareAndSet(false, true)) {
+				return;
+			}
+			inFlight.decrementAndGet();
+			responseSizes.withTags("route", route, "method", method).record(bytes);
+		}
+	}
+
+	/**
+	 * A response that counts the bytes of its body while it is written and records the request afterwards.
+	 */
+	private record MeteredResponse(ServerResponse delegate, RouteRequest routeRequest) implements ServerResponse {
+
+		@Override
+		public HttpStatusCode statusCode() {
+			return delegate.statusCode();
+		}
+
+		@Override
+		@Deprecated
+		@SuppressWarnings("removal")
+		public int rawStatusCode() {
+			return delegate.statusCode().value();
+		}
+
+		@Override
+		public HttpHeaders headers() {
+			return delegate.headers();
+		}
+
+		@Override
+		public MultiValueMap<String, ResponseCookie> cookies() {
+			return delegate.cookies();
+		}
+
+		@Override
+		public Mono<Void> writeTo(ServerWebExchange exchange, Context context) {
+			AtomicLong bytes = new AtomicLong();
+			ServerHttpResponseDecorator counting = new ServerHttpResponseDecorator(exchange.getResponse()) {
+
+				@Override
+				public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+					return super.writeWith(Flux.from(body).doOnNext(buffer -> bytes.addAndGet(buffer.readableByteCount())));
+				}
+
+				@Override
+				public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+					return super.writeAndFlushWith(Flux.from(body).map(chunk ->
+						Flux.from(chunk).doOnNext(buffer -> bytes.addAndGet(buffer.readableByteCount()))));
+				}
+			};
+
+			return delegate.writeTo(exchange.mutate().response(counting).build(), context)
+				       .doFinally(_ -> routeRequest.stop(bytes.get()));
+		}
+	}
+}
@@ -0,0 +1,44 @@
+package com.example.springpracticereactivemongo.webfn;
+
+import com.example.springpracticereactivemongo.model.BeerDTO;
+import com.example.springpracticereactivemongo.model.CustomerDTO;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Validator;
+
+import java.util.List;
+
+/**
+ * Prepares the validator before the handlers use it on the event loops.
+ * <p>
+ * The first validation of a type builds its constraint metadata, and the first violation loads the
+ * message bundles from the classpath, both of which block on I/O. Validating an invalid instance of
+ * every request body once at startup moves that work off the event loops, so the validation in
+ * {@link BeerHandler} and {@link CustomerHandler} is pure CPU work afterwards.
+ */
+@Component
+class ValidatorWarmUp {
+
+	private final Validator validator;
+
+	/**
+	 * Constructor for ValidatorWarmUp.
+	 *
+	 * @param validator the validator the handlers use
+	 */
+	ValidatorWarmUp(Validator validator) {
+		this.validator = validator;
+	}
+
+	/**
+	 * Validates an invalid instance of every request body type.
+	 */
+	@EventListener(ApplicationStartedEvent.class)
+	void warmUp() {
+		for (Object invalid : List.of(new BeerDTO((String) null), new CustomerDTO((String) null))) {
+			validator.validate(invalid, new BeanPropertyBindingResult(invalid, "warmUp"));
+		}
+	}
+}
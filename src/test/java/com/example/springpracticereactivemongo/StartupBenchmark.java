@@ -0,0 +1,201 @@
+package com.example.springpracticereactivemongo;
+
+import org.testcontainers.containers.MongoDBContainer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures how long the packaged application takes to serve its first request and to become ready.
+ * <p>
+ * The application extracted by the `aot-cds` profile is started repeatedly as a separate JVM, once as a
+ * plain jar and once with the AOT-generated bean definitions and the trained AppCDS archive. Each run is
+ * timed from the process start until the liveness probe answers, i.e. the first request is served, and
+ * until the readiness probe is `UP`, i.e. the indexes are reconciled and the node would receive traffic.
+ * The medians of both modes and the reduction are printed.
+ * <p>
+ * Run with `mvn -Paot-cds package -DskipTests && mvn -Paot-cds exec:java@startup-benchmark`; the number of
+ * runs per mode is set with `-Dstartup.benchmark.runs` and the output of every run is kept in
+ * `target/startup-benchmark`. The application uses the MongoDB at `-Dstartup.benchmark.mongodb-uri`, or a
+ * throwaway MongoDB container if it is not set. With `-Dstartup.benchmark.readiness=false` only the first
+ * response is timed, which needs neither MongoDB nor Docker: the client connects lazily, so the application
+ * serves requests before it reaches a database. The results are described in `docs/startup.md`.
+ */
+public final class StartupBenchmark {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(60);
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(10);
+
+    /**
+     * How a run started the application.
+     *
+     * @param name      the name printed in the results
+     * @param jvmFlags  the flags passed to the JVM before the jar
+     */
+    private record Mode(String name, List<String> jvmFlags) {
+    }
+
+    /**
+     * The startup times of one run.
+     *
+     * @param firstResponse the time until the first request was served
+     * @param ready         the time until the readiness probe was `UP`, or null if readiness was not measured
+     */
+    private record Run(Duration firstResponse, Duration ready) {
+    }
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+    private final Path jar;
+    private final Path logs;
+    private final String mongoUri;
+    private final boolean readiness;
+
+    private StartupBenchmark(Path jar, Path logs, String mongoUri, boolean readiness) {
+        this.jar = jar;
+        this.logs = logs;
+        this.mongoUri = mongoUri;
+        this.readiness = readiness;
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args unused
+     * @throws Exception if the application could not be started or did not become ready in time
+     */
+    public static void main(String[] args) throws Exception {
+        Path jar = Path.of(System.getProperty("startup.benchmark.application", "target/application/app.jar")).toAbsolutePath();
+        int runs = Integer.getInteger("startup.benchmark.runs", 5);
+        String mongoUri = System.getProperty("startup.benchmark.mongodb-uri");
+        boolean readiness = Boolean.parseBoolean(System.getProperty("startup.benchmark.readiness", "true"));
+        if (!Files.isRegularFile(jar) || !Files.isRegularFile(jar.resolveSibling("application.jsa"))) {
+            throw new IllegalStateException("No trained application at " + jar.getParent() + ", run mvn -Paot-cds package first");
+        }
+        Path logs = Files.createDirectories(Path.of("target", "startup-benchmark"));
+
+        List<Mode> modes = List.of(
+                new Mode("jar", List.of()),
+                new Mode("aot+cds", List.of("-XX:SharedArchiveFile=application.jsa", "-Dspring.aot.enabled=true"))
+        );
+
+        if (mongoUri != null || !readiness) {
+            new StartupBenchmark(jar, logs, mongoUri, readiness).run(modes, runs);
+        } else {
+            try (MongoDBContainer mongo = new MongoDBContainer("mongo:7.0")) {
+                mongo.start();
+                new StartupBenchmark(jar, logs, mongo.getReplicaSetUrl("startup-benchmark"), true).run(modes, runs);
+            }
+        }
+    }
+
+    /**
+     * Starts the application a number of times in every mode, after a warm-up run, and prints the medians.
+     */
+    private void run(List<Mode> modes, int runs) throws Exception {
+        List<Run> medians = new ArrayList<>();
+        for (Mode mode : modes) {
+            start(mode, -1);
+            List<Run> results = new ArrayList<>();
+            for (int i = 0; i < runs; i++) {
+                results.add(start(mode, i));
+            }
+            Run median = median(results);
+            medians.add(median);
+            System.out.printf("%-8s first response %5d ms, ready %s (median of %d runs)%n",
+                    mode.name(), median.firstResponse().toMillis(), millis(median.ready()), runs);
+        }
+
+        System.out.printf("reduction: first response %.1f%%, ready %s%n",
+                reduction(medians.get(0).firstResponse(), medians.get(1).firstResponse()),
+                readiness ? "%.1f%%".formatted(reduction(medians.get(0).ready(), medians.get(1).ready())) : "not measured");
+    }
+
+    /**
+     * Starts the application once and stops it as soon as it is ready.
+     * The run with a negative index is a warm-up run whose output is discarded.
+     */
+    private Run start(Mode mode, int index) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.addAll(mode.jvmFlags());
+        command.addAll(List.of("-jar", jar.toString(), "--server.port=" + port));
+        if (mongoUri != null) {
+            command.add("--spring.data.mongodb.uri=" + mongoUri);
+        }
+
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .directory(jar.getParent().toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(index < 0
+                        ? ProcessBuilder.Redirect.DISCARD
+                        : ProcessBuilder.Redirect.to(logs.resolve(mode.name() + "-" + index + ".log").toFile()));
+
+        long start = System.nanoTime();
+        Process process = builder.start();
+        try {
+            long deadline = start + STARTUP_TIMEOUT.toNanos();
+            Duration firstResponse = awaitStatus(process, port, "/actuator/health/liveness", start, deadline);
+            Duration ready = readiness ? awaitStatus(process, port, "/actuator/health/readiness", start, deadline) : null;
+            return new Run(firstResponse, ready);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    /**
+     * Polls an endpoint until it answers with `200 OK`.
+     *
+     * @return the time from the process start until the endpoint answered
+     */
+    private Duration awaitStatus(Process process, int port, String path, long start, long deadline) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(1))
+                .build();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with " + process.exitValue() + " before " + path + " was up");
+            }
+            try {
+                if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return Duration.ofNanos(System.nanoTime() - start);
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(POLL_INTERVAL);
+        }
+        throw new IllegalStateException(path + " was not up within " + STARTUP_TIMEOUT);
+    }
+
+    private static Run median(List<Run> runs) {
+        return new Run(
+                runs.stream().map(Run::firstResponse).sorted().toList().get(runs.size() / 2),
+                runs.getFirst().ready() == null ? null : runs.stream().map(Run::ready).sorted().toList().get(runs.size() / 2)
+        );
+    }
+
+    private static String millis(Duration duration) {
+        return duration == null ? "not measured" : "%5d ms".formatted(duration.toMillis());
+    }
+
+    private static double reduction(Duration baseline, Duration optimized) {
+        return 100.0 * (baseline.toNanos() - optimized.toNanos()) / baseline.toNanos();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.springpracticereactivemongo;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline.TimelineEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the startup timeline of the application.
+ * This class starts the application the way its main method does and reports the slowest startup steps of every build.
+ * <p>
+ * Steps are nested, e.g. the refresh of the context contains the instantiation of every bean, so they are ranked
+ * by their own time, excluding the time of the steps they contain. The number of steps reported is set with
+ * `-Dstartup.timeline.steps` and the report is written to `target/startup-timeline.txt`.
+ */
+class StartupTimelineTest {
+
+    private static final int REPORTED_STEPS = Integer.getInteger("startup.timeline.steps", 20);
+    private static final Path REPORT = Path.of("target", "startup-timeline.txt");
+
+    /**
+     * The time spent in a startup step.
+     *
+     * @param description the name and tags of the step
+     * @param duration    the time from the start to the end of the step
+     * @param self        the duration excluding the steps it contains
+     */
+    record StepTime(String description, Duration duration, Duration self) {
+    }
+
+    /**
+     * Tests the startup endpoint and reports the slowest startup steps.
+     * Verifies that the endpoint requires authentication while the other actuator endpoints do not, and that the
+     * recorded steps are drained from the buffer once they are read and written to the report.
+     */
+    @Test
+    @DisplayName("Test startup steps are protected, drained and the slowest reported")
+    void test_startup_steps_are_protected_drained_and_the_slowest_reported() throws IOException {
+        try (ConfigurableApplicationContext context = SpringPracticeReactiveMongoApplication.application().run("--server.port=0")) {
+            WebTestClient client = WebTestClient.bindToServer()
+                    .baseUrl("http://localhost:" + context.getEnvironment().getProperty("local.server.port"))
+                    .build();
+            client.get().uri("/actuator/startup").exchange().expectStatus().isUnauthorized();
+            client.post().uri("/actuator/startup").exchange().expectStatus().isUnauthorized();
+            client.get().uri("/actuator/health/liveness").exchange().expectStatus().isOk();
+
+            BufferingApplicationStartup startup = context.getBean(BufferingApplicationStartup.class);
+            List<TimelineEvent> events = startup.drainBufferedTimeline().getEvents();
+            assertThat(startup.getBufferedTimeline().getEvents()).isEmpty();
+
+            List<StepTime> slowest = slowest(events, REPORTED_STEPS);
+
+            String report = slowest.stream()
+                    .map(step -> "%6d ms self %6d ms total  %s".formatted(step.self().toMillis(), step.duration().toMillis(), step.description()))
+                    .collect(Collectors.joining(System.lineSeparator(), "Slowest " + slowest.size() + " startup steps:" + System.lineSeparator(), System.lineSeparator()));
+            System.out.print(report);
+            Files.createDirectories(REPORT.getParent());
+            Files.writeString(REPORT, report);
+
+            assertThat(slowest).hasSize(REPORTED_STEPS);
+        }
+    }
+
+    /**
+     * Tests the ranking of nested steps.
+     * Verifies that a step is ranked by its own time, not by the time of the steps it contains.
+     */
+    @Test
+    @DisplayName("Test steps are ranked by their own time")
+    void test_steps_are_ranked_by_their_own_time() {
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(10);
+        StartupStep refresh = startup.start("spring.context.refresh");
+        StartupStep bean = startup.start("spring.beans.instantiate").tag("beanName", "beerService");
+        sleep(Duration.ofMillis(50));
+        bean.end();
+        refresh.end();
+
+        List<StepTime> slowest = slowest(startup.getBufferedTimeline().getEvents(), 2);
+
+        assertThat(slowest).extracting(StepTime::description)
+                .containsExactly("spring.beans.instantiate [beanName=beerService]", "spring.context.refresh");
+        assertThat(slowest.get(1).duration()).isGreaterThanOrEqualTo(slowest.get(0).duration());
+    }
+
+    /**
+     * Ranks startup steps by the time spent in them, excluding the steps they contain.
+     */
+    static List<StepTime> slowest(List<TimelineEvent> events, int count) {
+        Map<Long, Duration> children = new HashMap<>();
+        for (TimelineEvent event : events) {
+            Long parentId = event.getStartupStep().getParentId();
+            if (parentId != null) {
+                children.merge(parentId, event.getDuration(), Duration::plus);
+            }
+        }
+
+        return events.stream()
+                .map(event -> new StepTime(
+                        describe(event.getStartupStep()),
+                        event.getDuration(),
+                        event.getDuration().minus(children.getOrDefault(event.getStartupStep().getId(), Duration.ZERO))))
+                .sorted(Comparator.comparing(StepTime::self).reversed())
+                .limit(count)
+                .toList();
+    }
+
+    private static String describe(StartupStep step) {
+        String tags = StreamSupport.stream(step.getTags().spliterator(), false)
+                .map(tag -> tag.getKey() + "=" + tag.getValue())
+                .collect(Collectors.joining(", "));
+        return tags.isEmpty() ? step.getName() : step.getName() + " [" + tags + "]";
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.springpracticereactivemongo.indexes;
+
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.index.HashedIndex;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests how the MongoIndexReconciler matches declared indexes with existing ones.
+ * This class tests that indexes only match if their keys, directions, types and options are the same.
+ */
+class MongoIndexDriftTest {
+
+    /**
+     * Tests an existing index with the declared keys in the opposite direction.
+     * Verifies that it does not match, while the same direction returned as a double does.
+     */
+    @Test
+    @DisplayName("Test index direction is compared")
+    void test_index_direction_is_compared() {
+        Index declared = new Index().on("beerStyle", Sort.Direction.ASC).on("price", Sort.Direction.ASC).named("beerStyle_price");
+
+        assertThat(MongoIndexReconciler.findIndex(List.of(index("beerStyle_price", new Document("beerStyle", 1).append("price", -1))), declared)).isNull();
+        assertThat(MongoIndexReconciler.findIndex(List.of(index("beerStyle_price", new Document("beerStyle", 1.0).append("price", 1.0))), declared)).isNotNull();
+    }
+
+    /**
+     * Tests text and hashed indexes on the same field.
+     * Verifies that an index of one type does not match a declaration of the other, while a text index matches
+     * its declaration despite the keys MongoDB stores it under.
+     */
+    @Test
+    @DisplayName("Test index type is compared")
+    void test_index_type_is_compared() {
+        TextIndexDefinition text = new TextIndexDefinition.TextIndexDefinitionBuilder().onField("beerName").named("beerName").build();
+        Document storedText = index("beerName", new Document("_fts", "text").append("_ftsx", 1))
+                .append("weights", new Document("beerName", 1));
+        Document storedHashed = index("beerName", new Document("beerName", "hashed"));
+
+        assertThat(MongoIndexReconciler.findIndex(List.of(storedText), text)).isNotNull();
+        assertThat(MongoIndexReconciler.findIndex(List.of(storedHashed), text)).isNull();
+        assertThat(MongoIndexReconciler.findIndex(List.of(storedText), HashedIndex.hashed("beerName"))).isNull();
+        assertThat(MongoIndexReconciler.findIndex(List.of(storedHashed), HashedIndex.hashed("beerName"))).isNotNull();
+    }
+
+    /**
+     * Tests existing indexes that differ from their declaration only in their options.
+     * Verifies that unique, sparse and TTL are compared.
+     */
+    @Test
+    @DisplayName("Test index options are compared")
+    void test_index_options_are_compared() {
+        Document stored = index("upc", new Document("upc", 1));
+
+        assertThat(MongoIndexReconciler.findIndex(List.of(stored), new Index().on("upc", Sort.Direction.ASC).named("upc"))).isNotNull();
+        assertThat(MongoIndexReconciler.findIndex(List.of(stored), new Index().on("upc", Sort.Direction.ASC).named("upc").unique())).isNull();
+        assertThat(MongoIndexReconciler.findIndex(List.of(stored), new Index().on("upc", Sort.Direction.ASC).named("upc").sparse())).isNull();
+        assertThat(MongoIndexReconciler.findIndex(List.of(new Document(stored).append("expireAfterSeconds", 3600)),
+                new Index().on("upc", Sort.Direction.ASC).named("upc").expire(Duration.ofHours(2)))).isNull();
+        assertThat(MongoIndexReconciler.findIndex(List.of(new Document(stored).append("expireAfterSeconds", 3600)),
+                new Index().on("upc", Sort.Direction.ASC).named("upc").expire(Duration.ofHours(1)))).isNotNull();
+    }
+
+    private static Document index(String name, Document key) {
+        return new Document("v", 2).append("key", key).append("name", name);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.springpracticereactivemongo.indexes;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for the MongoIndexReconciler.
+ * This class tests that the declared indexes are created in MongoDB.
+ */
+@SpringBootTest
+class MongoIndexReconcilerTest {
+
+    @Autowired
+    MongoIndexReconciler reconciler;
+
+    /**
+     * Tests reconciling the indexes of all collections.
+     * Verifies that no declared index is missing afterward.
+     */
+    @Test
+    @DisplayName("Test reconcile creates declared indexes")
+    void test_reconcile_creates_declared_indexes() {
+        reconciler.reconcile().block();
+
+        assertThat(reconciler.isReconciled()).isTrue();
+        assertThat(reconciler.getCollections()).containsKeys("beer", "customer");
+        assertThat(reconciler.getCollections().values()).allSatisfy(collection ->
+                assertThat(collection.missing()).isEmpty());
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.springpracticereactivemongo.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Tests for the AsyncAppenderMetrics.
+ * This class tests that the counts of the asynchronous appenders attached to the root logger are published.
+ */
+class AsyncAppenderMetricsTest {
+
+    private static final String APPENDER_NAME = "asyncMetricsTestAppender";
+
+    private final LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+    private final Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+    private final LevelDiscardingAsyncAppender appender = new LevelDiscardingAsyncAppender();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * Tests binding the metrics of an asynchronous appender attached to the root logger.
+     * Verifies that its queue depth, emitted events and dropped events, by reason, are published under its name.
+     */
+    @Test
+    @DisplayName("Test root appender counts are published")
+    void test_root_appender_counts_are_published() {
+        AppenderBase<ILoggingEvent> delegate = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+            }
+        };
+        delegate.setContext(context);
+        delegate.start();
+        appender.setName(APPENDER_NAME);
+        appender.setContext(context);
+        appender.addAppender(delegate);
+        appender.start();
+        root.addAppender(appender);
+
+        new AsyncAppenderMetrics().bindTo(meterRegistry);
+        context.getLogger(AsyncAppenderMetricsTest.class).warn("published");
+
+        assertThat(meterRegistry.get(AsyncAppenderMetrics.EMITTED_METRIC).tag("appender", APPENDER_NAME).functionCounter().count())
+                .isGreaterThanOrEqualTo(1)
+                .isEqualTo(appender.getEmittedCount());
+        assertThat(meterRegistry.get(AsyncAppenderMetrics.DROPPED_METRIC).tags("appender", APPENDER_NAME, "reason", "discarded").functionCounter().count())
+                .isEqualTo(appender.getDiscardedCount());
+        assertThat(meterRegistry.get(AsyncAppenderMetrics.DROPPED_METRIC).tags("appender", APPENDER_NAME, "reason", "full").functionCounter().count())
+                .isEqualTo(appender.getDroppedCount());
+        await().atMost(5, TimeUnit.SECONDS).until(() ->
+                meterRegistry.get(AsyncAppenderMetrics.QUEUE_METRIC).tag("appender", APPENDER_NAME).gauge().value() == 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        root.detachAppender(appender);
+        appender.stop();
+    }
+}
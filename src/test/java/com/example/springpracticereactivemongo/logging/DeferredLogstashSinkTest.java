@@ -0,0 +1,102 @@
+package com.example.springpracticereactivemongo.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.OutputStreamAppender;
+import net.logstash.logback.encoder.LogstashEncoder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.zalando.logbook.Correlation;
+import org.zalando.logbook.HttpLogFormatter;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.HttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the DeferredLogstashSink.
+ * This class tests that exchanges are formatted by the asynchronous appender rather than by the logging thread.
+ */
+class DeferredLogstashSinkTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private final LevelDiscardingAsyncAppender appender = new LevelDiscardingAsyncAppender();
+
+    /**
+     * Tests writing an exchange through the asynchronous JSON appender.
+     * Verifies that the exchange is formatted on the appender thread, written under the `http` field and counted as emitted.
+     */
+    @Test
+    @DisplayName("Test exchange is formatted on the appender thread")
+    void test_exchange_is_formatted_on_the_appender_thread() throws Exception {
+        AtomicReference<Thread> formattingThread = new AtomicReference<>();
+        HttpLogFormatter formatter = mock(HttpLogFormatter.class);
+        when(formatter.format(any(Correlation.class), any(HttpResponse.class))).thenAnswer(_ -> {
+            formattingThread.set(Thread.currentThread());
+            return "{\"type\":\"response\",\"status\":200}";
+        });
+        DeferredLogstashSink sink = new DeferredLogstashSink(formatter, logger());
+
+        sink.write(mock(Correlation.class), request(), response());
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> output.toString(StandardCharsets.UTF_8).contains("\"http\":{\"type\":\"response\",\"status\":200}"));
+        assertThat(formattingThread.get()).isNotNull().isNotSameAs(Thread.currentThread());
+        assertThat(output.toString(StandardCharsets.UTF_8)).contains("\"message\":\"200 OK GET /api/v3/beer\"");
+        assertThat(appender.getEmittedCount()).isEqualTo(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.stop();
+    }
+
+    private Logger logger() {
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        LogstashEncoder encoder = new LogstashEncoder();
+        encoder.setContext(context);
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> console = new OutputStreamAppender<>();
+        console.setContext(context);
+        console.setEncoder(encoder);
+        console.setOutputStream(output);
+        console.start();
+
+        appender.setContext(context);
+        appender.addAppender(console);
+        appender.start();
+
+        Logger logger = context.getLogger("org.zalando.logbook.Logbook");
+        logger.setLevel(Level.TRACE);
+        logger.addAppender(appender);
+        return logger;
+    }
+
+    private static HttpRequest request() {
+        HttpRequest request = mock(HttpRequest.class);
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getRequestUri()).thenReturn("/api/v3/beer");
+        return request;
+    }
+
+    private static HttpResponse response() {
+        HttpResponse response = mock(HttpResponse.class);
+        when(response.getStatus()).thenReturn(200);
+        when(response.getReasonPhrase()).thenReturn("OK");
+        return response;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.springpracticereactivemongo.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.util.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Tests for the LevelDiscardingAsyncAppender.
+ * This class tests that events below WARN are discarded once the ring buffer is nearly full, while warnings and
+ * errors are still written until it is full, and that every outcome is counted.
+ */
+class LevelDiscardingAsyncAppenderTest {
+
+    private static final int RING_BUFFER_SIZE = 8;
+    private static final int DISCARDING_THRESHOLD = 4;
+
+    private final LoggerContext context = new LoggerContext();
+    private final CountDownLatch released = new CountDownLatch(1);
+    private final List<Level> written = new CopyOnWriteArrayList<>();
+    private final LevelDiscardingAsyncAppender appender = new LevelDiscardingAsyncAppender();
+
+    /**
+     * Tests a burst of events while the delegate appender is blocked, so the ring buffer is never drained.
+     * Verifies that events below WARN are discarded under the threshold, that WARN and ERROR are still published
+     * until the ring buffer is full and dropped afterward, and that the emitted, discarded and dropped counts match.
+     */
+    @Test
+    @DisplayName("Test events below WARN are discarded under the threshold")
+    void test_events_below_warn_are_discarded_under_the_threshold() {
+        Logger logger = logger();
+
+        // the first event blocks the delegate, every published event keeps its slot until it is released
+        for (int i = 0; i < 10; i++) {
+            logger.info("info {}", i);
+        }
+        assertThat(appender.getEmittedCount()).isEqualTo(RING_BUFFER_SIZE - DISCARDING_THRESHOLD + 1);
+        assertThat(appender.getDiscardedCount()).isEqualTo(10 - appender.getEmittedCount());
+        assertThat(appender.getQueueSize()).isEqualTo(appender.getEmittedCount());
+
+        logger.warn("warn 1");
+        logger.warn("warn 2");
+        logger.error("error 1");
+        logger.error("error 2");
+
+        assertThat(appender.getEmittedCount()).isEqualTo(RING_BUFFER_SIZE);
+        assertThat(appender.getDiscardedCount()).isEqualTo(5);
+        assertThat(appender.getDroppedCount()).isEqualTo(1);
+
+        released.countDown();
+        await().atMost(5, TimeUnit.SECONDS).until(() -> written.size() == RING_BUFFER_SIZE);
+        assertThat(written).containsExactly(
+                Level.INFO, Level.INFO, Level.INFO, Level.INFO, Level.INFO,
+                Level.WARN, Level.WARN, Level.ERROR);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> appender.getQueueSize() == 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        released.countDown();
+        context.stop();
+    }
+
+    private Logger logger() {
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        AppenderBase<ILoggingEvent> blocked = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                try {
+                    released.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                written.add(event.getLevel());
+            }
+        };
+        blocked.setContext(context);
+        blocked.start();
+
+        appender.setContext(context);
+        appender.setRingBufferSize(RING_BUFFER_SIZE);
+        appender.setDiscardingThreshold(DISCARDING_THRESHOLD);
+        appender.setAppendTimeout(Duration.buildByMilliseconds(0));
+        appender.addAppender(blocked);
+        appender.start();
+
+        Logger logger = context.getLogger(LevelDiscardingAsyncAppenderTest.class);
+        logger.setLevel(Level.INFO);
+        logger.addAppender(appender);
+        return logger;
+    }
+}
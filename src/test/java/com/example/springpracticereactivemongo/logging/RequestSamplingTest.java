@@ -0,0 +1,39 @@
+package com.example.springpracticereactivemongo.logging;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.zalando.logbook.HttpRequest;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the RequestSampling condition.
+ * This class tests that requests are sampled by route.
+ */
+class RequestSamplingTest {
+
+    /**
+     * Tests the sampling rates of the routes.
+     * Verifies that the first matching route pattern wins and other paths use the default rate.
+     */
+    @Test
+    @DisplayName("Test sampling rate by route")
+    void test_sampling_rate_by_route() {
+        RequestSampling sampling = new RequestSampling(0.1, Map.of("/api/v3/customer/**", 0.0));
+
+        assertThat(sampling.rateOf("/api/v3/customer/42")).isZero();
+        assertThat(sampling.rateOf("/api/v3/beer")).isEqualTo(0.1);
+        assertThat(sampling.test(request("/api/v3/customer"))).isFalse();
+        assertThat(new RequestSampling(1.0, Map.of()).test(request("/api/v3/beer"))).isTrue();
+    }
+
+    private static HttpRequest request(String path) {
+        HttpRequest request = mock(HttpRequest.class);
+        when(request.getPath()).thenReturn(path);
+        return request;
+    }
+}
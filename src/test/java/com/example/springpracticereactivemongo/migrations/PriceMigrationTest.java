@@ -0,0 +1,104 @@
+package com.example.springpracticereactivemongo.migrations;
+
+import com.example.springpracticereactivemongo.domain.Beer;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Integration tests for the PriceMigration.
+ * This class tests that prices stored as strings are rewritten as Decimal128.
+ * The beers inserted by a test are deleted after it, so they never reach the tests sharing the collection.
+ */
+@SpringBootTest
+class PriceMigrationTest {
+
+    @Autowired
+    PriceMigration priceMigration;
+
+    @Autowired
+    ReactiveMongoTemplate mongoTemplate;
+
+    private final List<Object> insertedIds = new ArrayList<>();
+
+    /**
+     * Tests migrating a beer whose price is stored as a string.
+     * Verifies that the price is stored as Decimal128 afterward and still reads as the same BigDecimal.
+     */
+    @Test
+    @DisplayName("Test migrate string price to Decimal128")
+    void test_migrate_string_price() {
+        var collection = mongoTemplate.getCollectionName(Beer.class);
+        var legacy = insertBeer("Legacy Beer", "12.95");
+
+        priceMigration.migrate().block();
+
+        var migrated = mongoTemplate.findOne(query(where("_id").is(legacy.get("_id"))), Document.class, collection).block();
+        assertThat(migrated.get("price")).isEqualTo(new Decimal128(new BigDecimal("12.95")));
+
+        var beer = mongoTemplate.findById(legacy.get("_id"), Beer.class).block();
+        assertThat(beer.price()).isEqualByComparingTo("12.95");
+    }
+
+    /**
+     * Tests migrating a batch holding prices that are numbers Decimal128 cannot hold exactly.
+     * Verifies that those prices are left as strings while the other prices of the batch are still migrated.
+     */
+    @Test
+    @DisplayName("Test migrate skips prices Decimal128 cannot hold")
+    void test_migrate_skips_prices_decimal128_cannot_hold() {
+        var collection = mongoTemplate.getCollectionName(Beer.class);
+        var tooPrecise = insertBeer("Too Precise Beer", "1.00000000000000000000000000000000001");
+        var tooLarge = insertBeer("Too Large Beer", "1E+7000");
+        var legacy = insertBeer("Legacy Beer", "7.50");
+
+        priceMigration.migrate().block();
+
+        assertThat(mongoTemplate.findOne(query(where("_id").is(tooPrecise.get("_id"))), Document.class, collection).block().get("price"))
+                .isEqualTo("1.00000000000000000000000000000000001");
+        assertThat(mongoTemplate.findOne(query(where("_id").is(tooLarge.get("_id"))), Document.class, collection).block().get("price"))
+                .isEqualTo("1E+7000");
+        assertThat(mongoTemplate.findOne(query(where("_id").is(legacy.get("_id"))), Document.class, collection).block().get("price"))
+                .isEqualTo(new Decimal128(new BigDecimal("7.50")));
+    }
+
+    /**
+     * Tests converting prices Decimal128 cannot hold exactly.
+     * Verifies that they are reported as unparsable instead of failing.
+     */
+    @Test
+    @DisplayName("Test prices Decimal128 cannot hold are unparsable")
+    void test_prices_decimal128_cannot_hold_are_unparsable() {
+        assertThat(PriceMigration.toDecimal128(new Document("price", "1.00000000000000000000000000000000001"))).isNull();
+        assertThat(PriceMigration.toDecimal128(new Document("price", "1E+7000"))).isNull();
+        assertThat(PriceMigration.toDecimal128(new Document("price", "abc"))).isNull();
+        assertThat(PriceMigration.toDecimal128(new Document("price", "12.95"))).isEqualTo(new Decimal128(new BigDecimal("12.95")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongoTemplate.remove(query(where("_id").in(insertedIds)), mongoTemplate.getCollectionName(Beer.class)).block();
+    }
+
+    /**
+     * Inserts a beer with its price stored as a string, as it was before prices were mapped to Decimal128.
+     */
+    private Document insertBeer(String beerName, String price) {
+        var beer = mongoTemplate.insert(new Document("beerName", beerName).append("price", price), mongoTemplate.getCollectionName(Beer.class)).block();
+        insertedIds.add(beer.get("_id"));
+        return beer;
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.springpracticereactivemongo.monitoring;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the SlowQueryListener.
+ * This class tests how slow commands are reduced to query shapes, when they are explained and how their plans are summarized.
+ */
+class SlowQueryListenerTest {
+
+    /**
+     * Tests the shape of a find command.
+     * Verifies that values are replaced while operators, field names and the sort are kept.
+     */
+    @Test
+    @DisplayName("Test shape of find hides values")
+    void test_shape_of_find_hides_values() {
+        BsonDocument command = BsonDocument.parse("""
+                {"find": "beer", "filter": {"beerStyle": {"$in": ["IPA", "PALE_ALE"]}, "price": {"$gte": 5}},
+                 "sort": {"price": 1}, "limit": 10, "$db": "test-db"}
+                """);
+
+        String shape = SlowQueryListener.shapeOf("find", "beer", command);
+
+        assertThat(shape)
+                .startsWith("find beer ")
+                .contains("\"beerStyle\": {\"$in\": [\"?\"]}", "\"price\": {\"$gte\": \"?\"}", "\"sort\": {\"price\": 1}")
+                .doesNotContain("IPA", "PALE_ALE", "test-db");
+    }
+
+    /**
+     * Tests the summary of a query plan.
+     * Verifies that it lists the stages of the winning plan with the index of the index scan.
+     */
+    @Test
+    @DisplayName("Test plan summary lists stages")
+    void test_plan_summary_lists_stages() {
+        Document explain = new Document("queryPlanner", new Document("winningPlan",
+                new Document("stage", "LIMIT").append("inputStage",
+                        new Document("stage", "FETCH").append("inputStage",
+                                new Document("stage", "IXSCAN").append("indexName", "beerStyle_price")))))
+                .append("rejectedPlans", List.of());
+
+        assertThat(SlowQueryListener.planOf(explain)).isEqualTo("LIMIT > FETCH > IXSCAN(beerStyle_price)");
+    }
+
+    /**
+     * Tests a sequence of slow and fast commands of the same name on the same collection.
+     * Verifies that only a command following an unsampled slow one is copied, and that a sampled
+     * slow command is explained once per shape and explain interval.
+     */
+    @Test
+    @DisplayName("Test slow command samples next command")
+    void test_slow_command_samples_next_command() {
+        ReactiveMongoTemplate mongoTemplate = mock(ReactiveMongoTemplate.class);
+        when(mongoTemplate.executeCommand(any(Document.class))).thenReturn(Mono.just(new Document("queryPlanner",
+                new Document("winningPlan", new Document("stage", "COLLSCAN")))));
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("mongoTemplate", mongoTemplate));
+        SlowQueryListener listener = new SlowQueryListener(beanFactory.getBeanProvider(ReactiveMongoTemplate.class),
+                Duration.ofMillis(100), Duration.ofMinutes(10));
+
+        // slow but not sampled, the next command is sampled but fast
+        run(listener, 1, "IPA", Duration.ofMillis(500));
+        run(listener, 2, "ALE", Duration.ofMillis(1));
+        verify(mongoTemplate, never()).executeCommand(any(Document.class));
+
+        // slow but not sampled, the next command is sampled and slow
+        run(listener, 3, "PORTER", Duration.ofMillis(500));
+        run(listener, 4, "STOUT", Duration.ofMillis(500));
+        // the same shape is sampled again, but not explained again within the interval
+        run(listener, 5, "LAGER", Duration.ofMillis(500));
+        run(listener, 6, "PILS", Duration.ofMillis(500));
+
+        ArgumentCaptor<Document> explain = ArgumentCaptor.forClass(Document.class);
+        verify(mongoTemplate).executeCommand(explain.capture());
+        assertThat(explain.getValue().toJson()).contains("STOUT").doesNotContain("$db", "lsid");
+    }
+
+    private static void run(SlowQueryListener listener, int requestId, String beerStyle, Duration elapsed) {
+        BsonDocument command = BsonDocument.parse("""
+                {"find": "beer", "filter": {"beerStyle": "%s"}, "$db": "test-db", "lsid": {"id": 1}}
+                """.formatted(beerStyle));
+        ConnectionDescription connection = new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+        listener.commandStarted(new CommandStartedEvent(null, 1, requestId, connection, "test-db", "find", command));
+        // the driver reuses the buffer of the command document after the callback
+        command.clear();
+        listener.commandSucceeded(new CommandSucceededEvent(null, 1, requestId, connection, "test-db", "find",
+                new BsonDocument(), elapsed.toNanos()));
+    }
+}
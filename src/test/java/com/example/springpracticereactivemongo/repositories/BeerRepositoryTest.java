@@ -0,0 +1,197 @@
+package com.example.springpracticereactivemongo.repositories;
+
+import com.example.springpracticereactivemongo.domain.Beer;
+import com.example.springpracticereactivemongo.indexes.MongoIndexReconciler;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for the BeerRepository.
+ * This class tests that the sorted top-N queries return the first beers in order and that
+ * MongoDB answers them by walking an index instead of sorting in memory.
+ * <p>
+ * The `find` commands the client sends are captured by a command listener, so the plans checked are
+ * those of the commands the repository actually issues.
+ */
+@SpringBootTest
+class BeerRepositoryTest {
+
+    private static final String STYLE = "TOP_N";
+    private static final List<BsonDocument> FIND_COMMANDS = new CopyOnWriteArrayList<>();
+
+    /**
+     * Captures a copy of every `find` command sent by the client.
+     */
+    @TestConfiguration
+    static class FindCommandCapture {
+
+        @Bean
+        MongoClientSettingsBuilderCustomizer findCommandCapture() {
+            CommandListener listener = new CommandListener() {
+                @Override
+                public void commandStarted(CommandStartedEvent event) {
+                    if (event.getCommandName().equals("find")) {
+                        FIND_COMMANDS.add(event.getCommand().clone());
+                    }
+                }
+            };
+            return settings -> settings.addCommandListener(listener);
+        }
+    }
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    ReactiveMongoTemplate mongoTemplate;
+
+    @Autowired
+    MongoIndexReconciler reconciler;
+
+    /**
+     * Makes sure the declared indexes exist and the test style holds beers of different prices and stock.
+     */
+    @BeforeEach
+    void setUp() {
+        reconciler.reconcile().block();
+        beerRepository.deleteByBeerStyle(STYLE).block();
+        beerRepository.saveAll(List.of(
+                new Beer("Top N 1", STYLE, "200001", 30, new BigDecimal("9.99")),
+                new Beer("Top N 2", STYLE, "200002", 10, new BigDecimal("2.49")),
+                new Beer("Top N 3", STYLE, "200003", 20, new BigDecimal("5.00"))
+        )).blockLast();
+    }
+
+    /**
+     * Tests finding the cheapest beers of a style.
+     * Verifies that the beers are returned in ascending price order and cut at the limit.
+     */
+    @Test
+    @DisplayName("Test find cheapest beers of style")
+    void test_find_cheapest_beers_of_style() {
+        List<Beer> beers = beerRepository.findByBeerStyle(STYLE, Sort.by("price"), Limit.of(2))
+                .collectList()
+                .block();
+
+        assertThat(beers).extracting(Beer::price)
+                .containsExactly(new BigDecimal("2.49"), new BigDecimal("5.00"));
+    }
+
+    /**
+     * Tests finding the best stocked beers of all styles.
+     * Verifies that the beers are returned in descending stock order and cut at the limit.
+     */
+    @Test
+    @DisplayName("Test find best stocked beers")
+    void test_find_best_stocked_beers() {
+        List<Beer> beers = beerRepository.findAllBy(Sort.by(Sort.Direction.DESC, "quantityOnHand"), Limit.of(5))
+                .collectList()
+                .block();
+
+        assertThat(beers).hasSizeLessThanOrEqualTo(5);
+        assertThat(beers).extracting(Beer::quantityOnHand)
+                .isSortedAccordingTo((a, b) -> Integer.compare(b, a));
+    }
+
+    /**
+     * Tests the query plans of the sorted top-N queries, within a style and across styles.
+     * Verifies that the plan of every command the repository issues scans an index and has no blocking SORT stage.
+     */
+    @Test
+    @DisplayName("Test top N queries are served from indexes")
+    void test_top_n_queries_are_served_from_indexes() {
+        for (String field : List.of("price", "quantityOnHand")) {
+            for (Sort.Direction direction : Sort.Direction.values()) {
+                Sort sort = Sort.by(direction, field);
+                assertThat(stagesOf(explain(beerRepository.findByBeerStyle(STYLE, sort, Limit.of(2)), sort)))
+                        .as("plan of %s sorted on %s", STYLE, sort)
+                        .contains("IXSCAN")
+                        .doesNotContain("SORT");
+                assertThat(stagesOf(explain(beerRepository.findAllBy(sort, Limit.of(2)), sort)))
+                        .as("plan of all beers sorted on %s", sort)
+                        .contains("IXSCAN")
+                        .doesNotContain("SORT");
+            }
+        }
+    }
+
+    /**
+     * Runs a repository query and explains the `find` command it sent, recognized by its sort.
+     */
+    private Document explain(Flux<Beer> query, Sort sort) {
+        BsonDocument expectedSort = new BsonDocument();
+        sort.forEach(order -> expectedSort.append(order.getProperty(), new BsonInt32(order.isAscending() ? 1 : -1)));
+        String collection = mongoTemplate.getCollectionName(Beer.class);
+
+        FIND_COMMANDS.clear();
+        query.blockLast();
+        BsonDocument command = FIND_COMMANDS.stream()
+                .filter(find -> find.getString("find").getValue().equals(collection))
+                .filter(find -> expectedSort.equals(find.get("sort")))
+                .reduce((first, second) -> second)
+                .orElseThrow(() -> new AssertionError("No find command sorted on " + expectedSort + " was sent"));
+
+        return mongoTemplate.getMongoDatabase()
+                .flatMap(database -> Mono.from(database.runCommand(
+                        new BsonDocument("explain", explainable(command)).append("verbosity", new BsonString("queryPlanner")))))
+                .block();
+    }
+
+    /**
+     * Strips the session, cluster time and other generic fields the driver adds to every command,
+     * which `explain` does not accept in the explained command.
+     */
+    private static BsonDocument explainable(BsonDocument command) {
+        BsonDocument explainable = new BsonDocument();
+        command.forEach((key, value) -> {
+            if (!key.startsWith("$") && !key.equals("lsid") && !key.equals("txnNumber") && !key.equals("readConcern")) {
+                explainable.append(key, value);
+            }
+        });
+        return explainable;
+    }
+
+    /**
+     * Collects the names of all stages of the winning plan, however deeply nested.
+     */
+    private static List<String> stagesOf(Document explain) {
+        List<String> stages = new ArrayList<>();
+        collectStages(explain.get("queryPlanner", Document.class).get("winningPlan"), stages);
+        return stages;
+    }
+
+    private static void collectStages(Object node, List<String> stages) {
+        if (node instanceof Document document) {
+            if (document.get("stage") instanceof String stage) {
+                stages.add(stage);
+            }
+            document.values().forEach(value -> collectStages(value, stages));
+        } else if (node instanceof List<?> list) {
+            list.forEach(value -> collectStages(value, stages));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.springpracticereactivemongo.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the CachingReactiveJwtDecoder.
+ * This class tests that verified tokens are served from the cache until they expire and failures are never cached.
+ */
+class CachingReactiveJwtDecoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * Tests decoding the same valid token twice.
+     * Verifies that its signature is only verified once.
+     */
+    @Test
+    @DisplayName("Test repeated token is verified once")
+    void test_repeated_token_is_verified_once() {
+        AtomicInteger verifications = new AtomicInteger();
+        ReactiveJwtDecoder delegate = token -> {
+            verifications.incrementAndGet();
+            return Mono.just(jwt(token, Instant.now().plus(Duration.ofMinutes(10))));
+        };
+        CachingReactiveJwtDecoder decoder = new CachingReactiveJwtDecoder(delegate, 100, Duration.ofMinutes(5), Clock.systemUTC(), meterRegistry);
+
+        StepVerifier.create(decoder.decode("token")).expectNextCount(1).verifyComplete();
+        StepVerifier.create(decoder.decode("token")).expectNextCount(1).verifyComplete();
+
+        assertThat(verifications).hasValue(1);
+        assertThat(meterRegistry.get(CachingReactiveJwtDecoder.VERIFICATION_METRIC).tag("outcome", "success").timer().count()).isEqualTo(1);
+    }
+
+    /**
+     * Tests decoding an expired token and an invalid token twice.
+     * Verifies that neither is served from the cache.
+     */
+    @Test
+    @DisplayName("Test expired and invalid tokens are not cached")
+    void test_expired_and_invalid_tokens_are_not_cached() {
+        AtomicInteger verifications = new AtomicInteger();
+        ReactiveJwtDecoder delegate = token -> {
+            verifications.incrementAndGet();
+            return token.equals("invalid")
+                    ? Mono.error(new BadJwtException("invalid"))
+                    : Mono.just(jwt(token, Instant.now().minusSeconds(1)));
+        };
+        CachingReactiveJwtDecoder decoder = new CachingReactiveJwtDecoder(delegate, 100, Duration.ofMinutes(5), Clock.systemUTC(), meterRegistry);
+
+        decoder.decode("expired").block();
+        decoder.decode("expired").block();
+        StepVerifier.create(decoder.decode("invalid")).expectError(BadJwtException.class).verify();
+        StepVerifier.create(decoder.decode("invalid")).expectError(BadJwtException.class).verify();
+
+        assertThat(verifications).hasValue(4);
+        assertThat(meterRegistry.get(CachingReactiveJwtDecoder.VERIFICATION_METRIC).tag("outcome", "failure").timer().count()).isEqualTo(2);
+    }
+
+    private static Jwt jwt(String token, Instant expiresAt) {
+        return Jwt.withTokenValue(token)
+                .header("alg", "RS256")
+                .subject("user")
+                .issuedAt(expiresAt.minus(Duration.ofHours(1)))
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
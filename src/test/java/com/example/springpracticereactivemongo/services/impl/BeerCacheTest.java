@@ -0,0 +1,118 @@
+package com.example.springpracticereactivemongo.services.impl;
+
+import com.example.springpracticereactivemongo.model.BeerDTO;
+import com.example.springpracticereactivemongo.services.BeersChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the BeerCache.
+ * This class tests that writes evict the name entries of the written beers, however the removal of an earlier
+ * entry interleaves with loading the name again.
+ */
+class BeerCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Object> events = new ArrayList<>();
+    private final BeerCache beerCache = new BeerCache(events::add, new SingleFlight(meterRegistry), meterRegistry, 100, Duration.ofMinutes(5));
+
+    /**
+     * Tests renaming a beer cached by its old name.
+     * Verifies that the old name is loaded again after the write.
+     */
+    @Test
+    @DisplayName("Test rename evicts old name")
+    void test_rename_evicts_old_name() {
+        AtomicInteger loads = new AtomicInteger();
+        BeerDTO beer = beer("1", "Old Name");
+
+        beerCache.getByName("Old Name", () -> Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return beer;
+        })).block();
+        beerCache.getByName("Old Name", () -> Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return beer;
+        })).block();
+        assertThat(loads).hasValue(1);
+
+        beerCache.evict(beer("1", "New Name"));
+
+        beerCache.getByName("Old Name", () -> Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return null;
+        })).block();
+        assertThat(loads).hasValue(2);
+    }
+
+    /**
+     * Tests deleting a beer cached by its name.
+     * Verifies that its name entry is evicted by its identifier alone and only data derived from its style is dropped.
+     */
+    @Test
+    @DisplayName("Test delete by id evicts name and style")
+    void test_delete_by_id_evicts_name_and_style() {
+        AtomicInteger loads = new AtomicInteger();
+
+        beerCache.getByName("Some Beer", () -> Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return beer("2", "Some Beer");
+        })).block();
+        beerCache.evict("2", "IPA");
+        beerCache.getByName("Some Beer", () -> Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return null;
+        })).block();
+
+        assertThat(loads).hasValue(2);
+        assertThat(events).containsExactly(new BeersChangedEvent("IPA"));
+    }
+
+    /**
+     * Tests loading a name again before the removal of its previous entry is notified.
+     * Verifies that the late notification keeps the beer indexed, so deleting it still evicts the name.
+     */
+    @Test
+    @DisplayName("Test late removal keeps reloaded name indexed")
+    void test_late_removal_keeps_reloaded_name_indexed() {
+        List<Runnable> notifications = new ArrayList<>();
+        BeerCache beerCache = new BeerCache(events::add, new SingleFlight(meterRegistry), meterRegistry, 100, Duration.ofMinutes(5), notifications::add);
+        AtomicInteger loads = new AtomicInteger();
+        BeerDTO beer = beer("3", "Same Name");
+
+        beerCache.getByName("Same Name", () -> Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return beer;
+        })).block();
+        beerCache.evict(beer);
+        beerCache.getByName("Same Name", () -> Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return beer;
+        })).block();
+        while (!notifications.isEmpty()) {
+            notifications.removeFirst().run();
+        }
+
+        beerCache.evict("3", "IPA");
+        beerCache.getByName("Same Name", () -> Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return null;
+        })).block();
+
+        assertThat(loads).hasValue(3);
+    }
+
+    private static BeerDTO beer(String id, String beerName) {
+        return new BeerDTO(id, beerName, "IPA", "123", 10, new BigDecimal("5.00"), null, null, 0L);
+    }
+}
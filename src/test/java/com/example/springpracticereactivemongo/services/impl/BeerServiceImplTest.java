@@ -6,6 +6,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
@@ -159,6 +160,64 @@ class BeerServiceImplTest {
         assertThat(atomic_dto.get().beerName()).isEqualTo(newName);
     }
 
+    /**
+     * Tests patching a beer with only some of its fields.
+     * Verifies that the patched field is changed and the other fields are left untouched.
+     */
+    @Test
+    @DisplayName("Test patch beer keeps fields that are not patched")
+    void test_patch_keeps_other_fields() {
+        final String newName = "Patched Beer Name";
+        var saved_dto = getSavedBeerDTO();
+
+        var patched_dto = beerService.patchBeer(saved_dto.id(), new BeerDTO(newName)).block();
+
+        assertThat(patched_dto.beerName()).isEqualTo(newName);
+        assertThat(patched_dto.beerStyle()).isEqualTo(saved_dto.beerStyle());
+        assertThat(patched_dto.upc()).isEqualTo(saved_dto.upc());
+        assertThat(patched_dto.quantityOnHand()).isEqualTo(saved_dto.quantityOnHand());
+    }
+
+    /**
+     * Tests reading a beer through the cache before and after an update.
+     * Verifies that the update evicts the cached beer, so the next read sees the new data.
+     */
+    @Test
+    @DisplayName("Test update evicts cached beer")
+    void test_update_evicts_cached_beer() {
+        final String newName = "Cached Beer Name";
+        var saved_dto = getSavedBeerDTO();
+
+        assertThat(beerService.getBeerById(saved_dto.id()).block().beerName()).isEqualTo(saved_dto.beerName());
+        assertThat(beerService.findFirstByBeerName(newName).block()).isNull();
+
+        beerService.patchBeer(saved_dto.id(), new BeerDTO(newName)).block();
+
+        assertThat(beerService.getBeerById(saved_dto.id()).block().beerName()).isEqualTo(newName);
+        assertThat(beerService.findFirstByBeerName(newName).block()).isNotNull();
+    }
+
+    /**
+     * Tests concurrent identical reads of beers by style.
+     * Verifies that every concurrent subscriber receives the complete result.
+     */
+    @Test
+    @DisplayName("Test concurrent find by beer style share results")
+    void test_concurrent_find_by_beer_style() {
+        var saved_dto = getSavedBeerDTO();
+
+        var results = Flux.range(0, 8)
+                .flatMap(_ -> beerService.findByBeerStyle(saved_dto.beerStyle()).collectList())
+                .collectList()
+                .block();
+
+        assertThat(results).hasSize(8);
+        assertThat(results).allSatisfy(beers -> {
+            assertThat(beers).hasSameSizeAs(results.getFirst());
+            assertThat(beers).extracting(BeerDTO::id).contains(saved_dto.id());
+        });
+    }
+
     /**
      * Tests deleting a beer by its ID.
      * Verifies that the beer is deleted and cannot be fetched afterward.
@@ -1,6 +1,11 @@
 package com.example.springpracticereactivemongo.webfn;
 
+import com.example.springpracticereactivemongo.model.BatchItemResultDTO;
 import com.example.springpracticereactivemongo.model.BeerDTO;
+import com.example.springpracticereactivemongo.model.InventoryAdjustmentDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.Document;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
@@ -8,12 +13,17 @@ import org.junit.jupiter.api.TestMethodOrder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.mockOAuth2Login;
@@ -30,6 +40,12 @@ class BeerEndpointTest {
     @Autowired
     WebTestClient webTestClient;
 
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    ReactiveMongoTemplate mongoTemplate;
+
     /**
      * Tests listing all beers.
      * Verifies that the response contains a list of beers with a size greater than 1.
@@ -274,6 +290,560 @@ class BeerEndpointTest {
                 .expectBody().jsonPath("$.size()").value(equalTo(1));
     }
 
+    /**
+     * Tests walking the beer list page by page.
+     * Verifies that a page holds at most limit beers and that the next cursor leads to the following page.
+     */
+    @Test
+    @Order(15)
+    void test_list_beers_paged() {
+        var firstPage = webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(UriComponentsBuilder.fromPath(BeerRouterConfig.BEER_PATH).queryParam("limit", 1).build().toUri())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(PageCursor.NEXT_CURSOR_HEADER)
+                .expectBodyList(BeerDTO.class).hasSize(1)
+                .returnResult();
+
+        var nextCursor = firstPage.getResponseHeaders().getFirst(PageCursor.NEXT_CURSOR_HEADER);
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(
+                        UriComponentsBuilder.fromPath(BeerRouterConfig.BEER_PATH)
+                                .queryParam("limit", 1)
+                                .queryParam("cursor", nextCursor)
+                                .build().toUri()
+                )
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(BeerDTO.class).hasSize(1)
+                .value(page -> assertThat(page.getFirst().id()).isNotEqualTo(firstPage.getResponseBody().getFirst().id()));
+    }
+
+    /**
+     * Tests listing beers with a cursor that was not issued by the API.
+     * Verifies that the response status is 400 Bad Request.
+     */
+    @Test
+    @Order(16)
+    void test_list_beers_paged_bad_cursor() {
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(UriComponentsBuilder.fromPath(BeerRouterConfig.BEER_PATH).queryParam("cursor", "not-a-cursor").build().toUri())
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    /**
+     * Tests streaming all beers as newline-delimited JSON.
+     * Verifies that the response uses the NDJSON content type and emits more than one beer.
+     */
+    @Test
+    @Order(17)
+    void test_stream_beers_ndjson() {
+        var beers = webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(BeerRouterConfig.BEER_PATH)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON)
+                .returnResult(BeerDTO.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertThat(beers).hasSizeGreaterThan(1);
+    }
+
+    /**
+     * Tests creating beers in a batch where one of them is invalid.
+     * Verifies that valid beers are stored and the invalid one is reported without failing the batch.
+     */
+    @Test
+    @Order(18)
+    void test_create_beers_in_batch() {
+        var beers = List.of(
+                new BeerDTO("Batch Beer 1", "BATCH", "111", 1, BigDecimal.ONE),
+                new BeerDTO(""),
+                new BeerDTO("Batch Beer 3", "BATCH", "333", 3, BigDecimal.TEN)
+        );
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .post()
+                .uri(BeerRouterConfig.BEER_BATCH_PATH)
+                .bodyValue(beers)
+                .header("Content-type", "application/json")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(BatchItemResultDTO.class).hasSize(3)
+                .value(results -> {
+                    assertThat(results).filteredOn(result -> result.id() != null)
+                            .extracting(BatchItemResultDTO::index)
+                            .containsExactlyInAnyOrder(0L, 2L);
+                    assertThat(results).filteredOn(result -> result.error() != null)
+                            .extracting(BatchItemResultDTO::index)
+                            .containsExactly(1L);
+                });
+    }
+
+    /**
+     * Tests deleting all beers of a style.
+     * Verifies that the response reports the number of deleted beers.
+     */
+    @Test
+    @Order(19)
+    void test_delete_beers_by_style() {
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .post()
+                .uri(BeerRouterConfig.BEER_BATCH_PATH)
+                .bodyValue(List.of(
+                        new BeerDTO("Cleanup Beer 1", "CLEANUP", "1", 1, BigDecimal.ONE),
+                        new BeerDTO("Cleanup Beer 2", "CLEANUP", "2", 2, BigDecimal.ONE)
+                ))
+                .header("Content-type", "application/json")
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .delete()
+                .uri(UriComponentsBuilder.fromPath(BeerRouterConfig.BEER_PATH).queryParam("beerStyle", "CLEANUP").build().toUri())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.deletedCount").isEqualTo(2);
+    }
+
+    /**
+     * Tests adjusting the stock of a beer.
+     * Verifies that stock can be received, and that taking out more than is on hand is rejected with 409 Conflict.
+     */
+    @Test
+    @Order(20)
+    void test_adjust_inventory() {
+        var beerDTO = getSavedTestBeer();
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .post()
+                .uri(BeerRouterConfig.BEER_INVENTORY_PATH, beerDTO.id())
+                .bodyValue(new InventoryAdjustmentDTO(5))
+                .header("Content-type", "application/json")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.quantityOnHand").isEqualTo(5);
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .post()
+                .uri(BeerRouterConfig.BEER_INVENTORY_PATH, beerDTO.id())
+                .bodyValue(new InventoryAdjustmentDTO(-10))
+                .header("Content-type", "application/json")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Tests adjusting the stock of a beer that does not exist.
+     * Verifies that the response status is 404 Not Found.
+     */
+    @Test
+    @Order(21)
+    void test_adjust_inventory_not_found() {
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .post()
+                .uri(BeerRouterConfig.BEER_INVENTORY_PATH, 1999)
+                .bodyValue(new InventoryAdjustmentDTO(-1))
+                .header("Content-type", "application/json")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    /**
+     * Tests updating a beer conditionally on its ETag.
+     * Verifies that an update with the current ETag succeeds and a second update with the same, now stale, ETag fails.
+     */
+    @Test
+    @Order(22)
+    void test_update_beer_if_match() {
+        var beerDTO = getSavedTestBeer();
+        var eTag = webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(BeerRouterConfig.BEER_ID_PATH, beerDTO.id())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists("ETag")
+                .returnResult(BeerDTO.class)
+                .getResponseHeaders().getETag();
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .put()
+                .uri(BeerRouterConfig.BEER_ID_PATH, beerDTO.id())
+                .header("If-Match", eTag)
+                .body(Mono.just(new BeerDTO(beerDTO.id(), "Updated Beer")), BeerDTO.class)
+                .exchange()
+                .expectStatus().isNoContent()
+                .expectHeader().value("ETag", newETag -> assertThat(newETag).isNotEqualTo(eTag));
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .put()
+                .uri(BeerRouterConfig.BEER_ID_PATH, beerDTO.id())
+                .header("If-Match", eTag)
+                .body(Mono.just(new BeerDTO(beerDTO.id(), "Lost Update")), BeerDTO.class)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    /**
+     * Tests retrieving an unchanged beer with its ETag.
+     * Verifies that the response status is 304 Not Modified.
+     */
+    @Test
+    @Order(23)
+    void test_get_beer_by_id_not_modified() {
+        var beerDTO = getSavedTestBeer();
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(BeerRouterConfig.BEER_ID_PATH, beerDTO.id())
+                .ifNoneMatch("\"" + beerDTO.version() + "\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    /**
+     * Tests listing beers by style with the ETag of the previous response, before and after a change.
+     * Verifies that the list is not resent while unchanged, and is resent once a beer of the style is added.
+     */
+    @Test
+    @Order(24)
+    void test_list_beers_not_modified() {
+        var listUri = UriComponentsBuilder.fromPath(BeerRouterConfig.BEER_PATH).queryParam("beerStyle", "TEST").build().toUri();
+        var eTag = webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(listUri)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(BeerDTO.class)
+                .getResponseHeaders().getETag();
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(listUri)
+                .ifNoneMatch(eTag)
+                .exchange()
+                .expectStatus().isNotModified();
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .post()
+                .uri(BeerRouterConfig.BEER_PATH)
+                .body(Mono.just(new BeerDTO("Test Beer 3", "TEST", "4689465", 8, BigDecimal.TEN)), BeerDTO.class)
+                .header("Content-type", "application/json")
+                .exchange()
+                .expectStatus().isCreated();
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(listUri)
+                .ifNoneMatch(eTag)
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    /**
+     * Tests retrieving a beer with a field selection.
+     * Verifies that only the selected fields are returned.
+     */
+    @Test
+    @Order(25)
+    void test_get_beer_by_id_with_fields() {
+        var location = webTestClient
+                .mutateWith(mockOAuth2Login())
+                .post()
+                .uri(BeerRouterConfig.BEER_PATH)
+                .body(Mono.just(new BeerDTO("Priced Beer", "FIELDS", "555", 1, BigDecimal.TEN)), BeerDTO.class)
+                .header("Content-type", "application/json")
+                .exchange()
+                .expectStatus().isCreated()
+                .returnResult(BeerDTO.class)
+                .getResponseHeaders().getLocation();
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(UriComponentsBuilder.fromUri(location).queryParam("fields", "beerName,price").build().toUri())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.beerName").isEqualTo("Priced Beer")
+                .jsonPath("$.price").isEqualTo(10)
+                .jsonPath("$.id").doesNotExist()
+                .jsonPath("$.beerStyle").doesNotExist();
+    }
+
+    /**
+     * Tests listing beers with an unknown field in the field selection.
+     * Verifies that the request is rejected with a 400 status.
+     */
+    @Test
+    @Order(26)
+    void test_list_beers_unknown_field() {
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(UriComponentsBuilder.fromPath(BeerRouterConfig.BEER_PATH).queryParam("fields", "beerName,secret").build().toUri())
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    /**
+     * Tests retrieving many beers by ID, including an ID without a beer.
+     * Verifies that the beers are returned in request order and the missing ID is reported.
+     */
+    @Test
+    @Order(27)
+    void test_list_beers_by_ids() {
+        var first = getSavedTestBeer();
+        var second = getSavedTestBeer();
+        var missingId = "000000000000000000000000";
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(UriComponentsBuilder.fromPath(BeerRouterConfig.BEER_PATH)
+                        .queryParam("ids", String.join(",", second.id(), missingId, first.id()))
+                        .build().toUri())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Missing-Ids", missingId)
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].id").isEqualTo(second.id())
+                .jsonPath("$[1].id").isEqualTo(first.id());
+    }
+
+    /**
+     * Tests listing beers filtered by style, name prefix, price range and stock range.
+     * Verifies that only the matching beer is returned.
+     */
+    @Test
+    @Order(28)
+    void test_list_beers_filtered() {
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .post()
+                .uri(BeerRouterConfig.BEER_PATH)
+                .body(Mono.just(new BeerDTO("Filter Beer Cheap", "FILTER", "1000001", 5, new BigDecimal("4.50"))), BeerDTO.class)
+                .header("Content-type", "application/json")
+                .exchange()
+                .expectStatus().isCreated();
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .post()
+                .uri(BeerRouterConfig.BEER_PATH)
+                .body(Mono.just(new BeerDTO("Filter Beer Dear", "FILTER", "1000002", 50, new BigDecimal("12.00"))), BeerDTO.class)
+                .header("Content-type", "application/json")
+                .exchange()
+                .expectStatus().isCreated();
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(UriComponentsBuilder.fromPath(BeerRouterConfig.BEER_PATH)
+                        .queryParam("beerStyle", "FILTER,OTHER")
+                        .queryParam("namePrefix", "Filter Beer")
+                        .queryParam("minPrice", "10")
+                        .queryParam("maxPrice", "20")
+                        .queryParam("minQuantityOnHand", "10")
+                        .build().toUri())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].beerName").isEqualTo("Filter Beer Dear");
+    }
+
+    /**
+     * Tests listing beers with an empty price range.
+     * Verifies that the request is rejected with a 400 status.
+     */
+    @Test
+    @Order(29)
+    void test_list_beers_invalid_filter() {
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(UriComponentsBuilder.fromPath(BeerRouterConfig.BEER_PATH).queryParam("minPrice", "20").queryParam("maxPrice", "10").build().toUri())
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    /**
+     * Tests listing the cheapest and the most expensive beer of a style.
+     * Verifies that the beers are ordered by price and cut at the limit.
+     */
+    @Test
+    @Order(30)
+    void test_list_top_beers_sorted_by_price() {
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(UriComponentsBuilder.fromPath(BeerRouterConfig.BEER_PATH)
+                        .queryParam("beerStyle", "FILTER")
+                        .queryParam("sort", "price")
+                        .queryParam("limit", "1")
+                        .build().toUri())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].beerName").isEqualTo("Filter Beer Cheap");
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(UriComponentsBuilder.fromPath(BeerRouterConfig.BEER_PATH)
+                        .queryParam("beerStyle", "FILTER")
+                        .queryParam("sort", "-price")
+                        .queryParam("limit", "1")
+                        .build().toUri())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].beerName").isEqualTo("Filter Beer Dear");
+    }
+
+    /**
+     * Tests listing beers sorted on a field without an index.
+     * Verifies that the request is rejected with a 400 status.
+     */
+    @Test
+    @Order(31)
+    void test_list_top_beers_invalid_sort() {
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(UriComponentsBuilder.fromPath(BeerRouterConfig.BEER_PATH).queryParam("sort", "upc").build().toUri())
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    /**
+     * Tests the route metrics of getting a beer by its ID.
+     * Verifies that the request is timed under the route template rather than the raw path.
+     */
+    @Test
+    @Order(32)
+    void test_route_metrics_use_route_template() {
+        BeerDTO beerDTO = getSavedTestBeer();
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(BeerRouterConfig.BEER_ID_PATH, beerDTO.id())
+                .exchange()
+                .expectStatus().isOk();
+
+        Timer timer = meterRegistry.find("http.server.requests")
+                .tags("uri", BeerRouterConfig.BEER_ID_PATH, "method", "GET", "status", "200")
+                .timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isGreaterThanOrEqualTo(1);
+        assertThat(meterRegistry.find("http.server.requests").tag("uri", "/api/v3/beer/" + beerDTO.id()).timer()).isNull();
+        assertThat(meterRegistry.find(RouteMetrics.RESPONSE_SIZE_METRIC).tags("route", BeerRouterConfig.BEER_ID_PATH, "method", "GET").summary())
+                .isNotNull()
+                .satisfies(summary -> assertThat(summary.totalAmount()).isGreaterThan(0));
+    }
+
+    /**
+     * Tests creating a beer from a body carrying the identifier and a stale version of an existing beer.
+     * Verifies that both are ignored and a new beer is created with its initial version.
+     */
+    @Test
+    @Order(33)
+    void test_create_new_beer_ignores_id_and_version() {
+        BeerDTO existing = getSavedTestBeer();
+        BeerDTO body = new BeerDTO(existing.id(), "Versioned Beer", existing.beerStyle(), existing.upc(),
+                existing.quantityOnHand(), existing.price(), null, null, existing.version() + 5);
+
+        var location = webTestClient
+                .mutateWith(mockOAuth2Login())
+                .post()
+                .uri(BeerRouterConfig.BEER_PATH)
+                .body(Mono.just(body), BeerDTO.class)
+                .header("Content-type", "application/json")
+                .exchange()
+                .expectStatus().isCreated()
+                .returnResult(BeerDTO.class)
+                .getResponseHeaders().getLocation();
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(location)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(BeerDTO.class)
+                .value(created -> {
+                    assertThat(created.id()).isNotEqualTo(existing.id());
+                    assertThat(created.beerName()).isEqualTo("Versioned Beer");
+                    assertThat(created.version()).isZero();
+                });
+    }
+
+    /**
+     * Tests adjusting the stock of beers whose quantity on hand is missing or null.
+     * Verifies that the missing quantity counts as zero, so stock can be received but not taken out.
+     */
+    @Test
+    @Order(34)
+    void test_adjust_inventory_without_quantity() {
+        var missing = getSavedTestBeer();
+        var nullQuantity = mongoTemplate.insert(new Document("beerName", "Uncounted Beer").append("quantityOnHand", null).append("version", 0L), "beer")
+                .map(document -> document.getObjectId("_id").toHexString())
+                .block();
+
+        for (String id : List.of(missing.id(), nullQuantity)) {
+            webTestClient
+                    .mutateWith(mockOAuth2Login())
+                    .post()
+                    .uri(BeerRouterConfig.BEER_INVENTORY_PATH, id)
+                    .bodyValue(new InventoryAdjustmentDTO(-1))
+                    .header("Content-type", "application/json")
+                    .exchange()
+                    .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+
+            webTestClient
+                    .mutateWith(mockOAuth2Login())
+                    .post()
+                    .uri(BeerRouterConfig.BEER_INVENTORY_PATH, id)
+                    .bodyValue(new InventoryAdjustmentDTO(3))
+                    .header("Content-type", "application/json")
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody().jsonPath("$.quantityOnHand").isEqualTo(3);
+        }
+    }
+
     /**
      * Saves a test BeerDTO object and retrieves it.
      *
@@ -0,0 +1,73 @@
+package com.example.springpracticereactivemongo.webfn;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for BoundedLists.
+ * This class tests that only lists up to the maximum number of items are collected and longer ones streamed.
+ */
+class BoundedListsTest {
+
+    /**
+     * Tests a list with exactly the maximum number of items.
+     * Verifies that its items are collected and read once.
+     */
+    @Test
+    @DisplayName("Test short list is collected")
+    void test_short_list_is_collected() {
+        AtomicInteger reads = new AtomicInteger();
+        AtomicReference<List<Integer>> collected = new AtomicReference<>();
+        Flux<Integer> items = Flux.range(0, 3).doOnSubscribe(_ -> reads.incrementAndGet());
+
+        StepVerifier.create(BoundedLists.collectOrStream(
+                        items,
+                        3,
+                        list -> {
+                            collected.set(list);
+                            return ServerResponse.ok().build();
+                        },
+                        _ -> ServerResponse.status(HttpStatus.PARTIAL_CONTENT).build()))
+                .assertNext(response -> assertThat(response.statusCode()).isEqualTo(HttpStatus.OK))
+                .verifyComplete();
+
+        assertThat(collected.get()).containsExactly(0, 1, 2);
+        assertThat(reads).hasValue(1);
+    }
+
+    /**
+     * Tests a list longer than the maximum number of items.
+     * Verifies that reading stops after one item past the maximum and the list is handed over to be streamed.
+     */
+    @Test
+    @DisplayName("Test long list is streamed")
+    void test_long_list_is_streamed() {
+        AtomicInteger emitted = new AtomicInteger();
+        AtomicReference<Flux<Integer>> streamed = new AtomicReference<>();
+        Flux<Integer> items = Flux.range(0, 100).doOnNext(_ -> emitted.incrementAndGet());
+
+        StepVerifier.create(BoundedLists.collectOrStream(
+                        items,
+                        3,
+                        _ -> ServerResponse.ok().build(),
+                        stream -> {
+                            streamed.set(stream);
+                            return ServerResponse.status(HttpStatus.PARTIAL_CONTENT).build();
+                        }))
+                .assertNext(response -> assertThat(response.statusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT))
+                .verifyComplete();
+
+        assertThat(emitted).hasValue(4);
+        StepVerifier.create(streamed.get()).expectNextCount(100).verifyComplete();
+    }
+}
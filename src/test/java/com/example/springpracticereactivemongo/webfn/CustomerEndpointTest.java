@@ -8,9 +8,13 @@ import org.junit.jupiter.api.TestMethodOrder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Mono;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.mockOAuth2Login;
 
@@ -196,6 +200,178 @@ class CustomerEndpointTest {
                 .expectStatus().isNotFound();
     }
 
+    /**
+     * Tests walking the customer list page by page.
+     * Verifies that a page holds at most limit customers and that the next cursor leads to the following page.
+     */
+    @Test
+    @Order(11)
+    void test_list_customers_paged() {
+        var firstPage = webClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(UriComponentsBuilder.fromPath(CustomerRouterConfig.CUSTOMER_PATH).queryParam("limit", 1).build().toUri())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(PageCursor.NEXT_CURSOR_HEADER)
+                .expectBodyList(CustomerDTO.class).hasSize(1)
+                .returnResult();
+
+        var nextCursor = firstPage.getResponseHeaders().getFirst(PageCursor.NEXT_CURSOR_HEADER);
+
+        webClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(
+                        UriComponentsBuilder.fromPath(CustomerRouterConfig.CUSTOMER_PATH)
+                                .queryParam("limit", 1)
+                                .queryParam("cursor", nextCursor)
+                                .build().toUri()
+                )
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(CustomerDTO.class).hasSize(1)
+                .value(page -> assertThat(page.getFirst().id()).isNotEqualTo(firstPage.getResponseBody().getFirst().id()));
+    }
+
+    /**
+     * Tests streaming all customers as newline-delimited JSON.
+     * Verifies that the response uses the NDJSON content type and emits more than one customer.
+     */
+    @Test
+    @Order(12)
+    void test_stream_customers_ndjson() {
+        var customers = webClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(CustomerRouterConfig.CUSTOMER_PATH)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON)
+                .returnResult(CustomerDTO.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertThat(customers).hasSizeGreaterThan(1);
+    }
+
+    /**
+     * Tests patching a customer with a stale ETag.
+     * Verifies that the response status is 412 Precondition Failed.
+     */
+    @Test
+    @Order(13)
+    void test_patch_customer_stale_if_match() {
+        var dto = getSavedTestCustomer();
+
+        webClient
+                .mutateWith(mockOAuth2Login())
+                .patch()
+                .uri(CustomerRouterConfig.CUSTOMER_PATH_ID, dto.id())
+                .header("If-Match", "\"" + (dto.version() + 1) + "\"")
+                .body(Mono.just(new CustomerDTO("test 6")), CustomerDTO.class)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    /**
+     * Tests retrieving an unchanged customer with its ETag.
+     * Verifies that the response status is 304 Not Modified.
+     */
+    @Test
+    @Order(14)
+    void test_get_customer_by_id_not_modified() {
+        var dto = getSavedTestCustomer();
+
+        webClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(CustomerRouterConfig.CUSTOMER_PATH_ID, dto.id())
+                .ifNoneMatch("\"" + dto.version() + "\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    /**
+     * Tests listing a page of customers with a field selection.
+     * Verifies that only the selected fields are returned.
+     */
+    @Test
+    @Order(15)
+    void test_list_customers_with_fields() {
+        getSavedTestCustomer();
+
+        webClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(UriComponentsBuilder.fromPath(CustomerRouterConfig.CUSTOMER_PATH).queryParam("limit", 1).queryParam("fields", "customerName").build().toUri())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].customerName").exists()
+                .jsonPath("$[0].id").doesNotExist();
+    }
+
+    /**
+     * Tests retrieving many customers by ID.
+     * Verifies that the customers are returned in request order.
+     */
+    @Test
+    @Order(16)
+    void test_list_customers_by_ids() {
+        var first = getSavedTestCustomer();
+        var second = getSavedTestCustomer();
+
+        webClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(UriComponentsBuilder.fromPath(CustomerRouterConfig.CUSTOMER_PATH).queryParam("ids", second.id() + "," + first.id()).build().toUri())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist("X-Missing-Ids")
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].id").isEqualTo(second.id())
+                .jsonPath("$[1].id").isEqualTo(first.id());
+    }
+
+    /**
+     * Tests creating a customer from a body carrying the identifier and a stale version of an existing customer.
+     * Verifies that both are ignored and a new customer is created with its initial version.
+     */
+    @Test
+    @Order(17)
+    void test_create_customer_ignores_id_and_version() {
+        var existing = getSavedTestCustomer();
+
+        var location = webClient
+                .mutateWith(mockOAuth2Login())
+                .post()
+                .uri(CustomerRouterConfig.CUSTOMER_PATH)
+                .body(Mono.just(new CustomerDTO(existing.id(), "versioned", null, null, existing.version() + 5)), CustomerDTO.class)
+                .header("Content-Type", "application/json")
+                .exchange()
+                .expectStatus().isCreated()
+                .returnResult(CustomerDTO.class)
+                .getResponseHeaders().getLocation();
+
+        webClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(location)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(CustomerDTO.class)
+                .value(created -> {
+                    assertThat(created.id()).isNotEqualTo(existing.id());
+                    assertThat(created.version()).isZero();
+                });
+    }
+
     /**
      * Saves a test CustomerDTO object and retrieves it.
      *
@@ -0,0 +1,136 @@
+package com.example.springpracticereactivemongo.webfn;
+
+import com.example.springpracticereactivemongo.model.BeerDTO;
+import com.example.springpracticereactivemongo.services.BeerService;
+import com.example.springpracticereactivemongo.services.BeersChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.reactive.function.server.MockServerRequest;
+import org.springframework.validation.Validator;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the ResponseCache.
+ * This class tests that only lists up to the maximum number of items are buffered and cached,
+ * that concurrent misses share one read and that writes only drop the lists of their style.
+ */
+class ResponseCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ResponseCache responseCache = new ResponseCache(new ObjectMapper(), meterRegistry, 1 << 20, 3, Duration.ofMinutes(1));
+
+    /**
+     * Tests reading a short list twice.
+     * Verifies that it is encoded once and served from the cache afterwards.
+     */
+    @Test
+    @DisplayName("Test short list is cached")
+    void test_short_list_is_cached() {
+        AtomicInteger reads = new AtomicInteger();
+        Flux<String> items = Flux.just("a", "b", "c").doOnSubscribe(_ -> reads.incrementAndGet());
+
+        StepVerifier.create(responseCache.get(null, MediaType.APPLICATION_JSON, items, _ -> "\"tag\""))
+                .assertNext(entry -> assertThat(new String(entry.json())).isEqualTo("[\"a\",\"b\",\"c\"]"))
+                .verifyComplete();
+        StepVerifier.create(responseCache.get(null, MediaType.APPLICATION_JSON, items, _ -> "\"tag\"")).expectNextCount(1).verifyComplete();
+
+        assertThat(reads).hasValue(1);
+    }
+
+    /**
+     * Tests reading a list longer than the maximum number of items.
+     * Verifies that reading stops after the maximum, nothing is cached and the list is not read again until beers change.
+     */
+    @Test
+    @DisplayName("Test long list is not buffered")
+    void test_long_list_is_not_buffered() {
+        AtomicInteger reads = new AtomicInteger();
+        AtomicInteger emitted = new AtomicInteger();
+        Flux<Integer> items = Flux.range(0, 100)
+                .doOnSubscribe(_ -> reads.incrementAndGet())
+                .doOnNext(_ -> emitted.incrementAndGet());
+
+        StepVerifier.create(responseCache.get("IPA", MediaType.APPLICATION_JSON, items, _ -> "\"tag\"")).verifyComplete();
+        StepVerifier.create(responseCache.get("IPA", MediaType.APPLICATION_JSON, items, _ -> "\"tag\"")).verifyComplete();
+        assertThat(reads).hasValue(1);
+        assertThat(emitted).hasValue(4);
+
+        responseCache.onBeersChanged(new BeersChangedEvent("IPA"));
+        StepVerifier.create(responseCache.get("IPA", MediaType.APPLICATION_JSON, items, _ -> "\"tag\"")).verifyComplete();
+        assertThat(reads).hasValue(2);
+    }
+
+    /**
+     * Tests identical GET requests arriving while the list is read for the first of them.
+     * Verifies that the repository is queried once and the other requests are counted as coalesced.
+     */
+    @Test
+    @DisplayName("Test concurrent identical gets share one query")
+    void test_concurrent_identical_gets_share_one_query() {
+        AtomicInteger queries = new AtomicInteger();
+        BeerService beerService = mock(BeerService.class);
+        when(beerService.findByBeerStyle("IPA")).thenReturn(Flux.defer(() -> {
+            queries.incrementAndGet();
+            return Flux.just(new BeerDTO("1", "Some Beer", "IPA", "123", 10, new BigDecimal("5.00"), null, null, 0L))
+                    .delaySubscription(Duration.ofMillis(100));
+        }));
+        BeerHandler beerHandler = new BeerHandler(beerService, mock(Validator.class), responseCache, 500, 3);
+        ServerRequest ipaRequest = MockServerRequest.builder()
+                .uri(URI.create("/api/v3/beer?beerStyle=IPA"))
+                .queryParam("beerStyle", "IPA")
+                .build();
+
+        StepVerifier.create(Flux.range(0, 8).flatMap(_ -> beerHandler.listBeers(ipaRequest)))
+                .expectNextCount(8)
+                .verifyComplete();
+
+        assertThat(queries).hasValue(1);
+        assertThat(meterRegistry.get(ResponseCache.COALESCED_METRIC).counter().count()).isEqualTo(7);
+    }
+
+    /**
+     * Tests a write to one style while lists of two styles and of all styles are cached, and one is being read.
+     * Verifies that only the list of the written style and the list of all styles are read again.
+     */
+    @Test
+    @DisplayName("Test write only drops lists of its style")
+    void test_write_only_drops_lists_of_its_style() {
+        AtomicInteger ipaReads = new AtomicInteger();
+        AtomicInteger stoutReads = new AtomicInteger();
+        AtomicInteger allReads = new AtomicInteger();
+        Flux<String> ipa = Flux.just("ipa").doOnSubscribe(_ -> ipaReads.incrementAndGet());
+        Flux<String> slowIpa = ipa.delaySubscription(Duration.ofMillis(100));
+        Flux<String> stout = Flux.just("stout").doOnSubscribe(_ -> stoutReads.incrementAndGet());
+        Flux<String> all = Flux.just("ipa", "stout").doOnSubscribe(_ -> allReads.incrementAndGet());
+
+        Mono<ResponseCache.Entry> ipaFill = responseCache.get("IPA", MediaType.APPLICATION_JSON, slowIpa, _ -> "\"ipa\"").cache();
+        ipaFill.subscribe();
+        responseCache.get("Stout", MediaType.APPLICATION_JSON, stout, _ -> "\"stout\"").block();
+        responseCache.get(null, MediaType.APPLICATION_JSON, all, _ -> "\"all\"").block();
+
+        responseCache.onBeersChanged(new BeersChangedEvent("Stout"));
+        ipaFill.block();
+        responseCache.get("IPA", MediaType.APPLICATION_JSON, ipa, _ -> "\"ipa\"").block();
+        responseCache.get("Stout", MediaType.APPLICATION_JSON, stout, _ -> "\"stout\"").block();
+        responseCache.get(null, MediaType.APPLICATION_JSON, all, _ -> "\"all\"").block();
+
+        assertThat(ipaReads).hasValue(1);
+        assertThat(stoutReads).hasValue(2);
+        assertThat(allReads).hasValue(2);
+    }
+}